@@ -0,0 +1,31 @@
+package com.food_supply_chain.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PUBLIC_JOURNEY_CACHE = "publicJourney";
+    public static final String PUBLIC_BATCH_CACHE = "publicBatch";
+    public static final String PUBLIC_TRACKING_CACHE = "publicTracking";
+
+    /**
+     * Caffeine caches for the public QR scan endpoints.
+     * Evictions issued inside a transaction are deferred until it commits, so a concurrent scan
+     * cannot re-cache the state the transaction is about to replace.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.public-tracking.spec}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                PUBLIC_JOURNEY_CACHE, PUBLIC_BATCH_CACHE, PUBLIC_TRACKING_CACHE);
+        cacheManager.setCacheSpecification(spec);
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
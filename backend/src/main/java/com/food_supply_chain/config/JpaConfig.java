@@ -0,0 +1,22 @@
+package com.food_supply_chain.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.type.format.jackson.JacksonJsonFormatMapper;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    /**
+     * Makes Hibernate read and write JSON columns with the application's ObjectMapper,
+     * so there is one shared, thread-safe mapper configured the same way as the REST layer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jsonFormatMapperCustomizer(ObjectMapper objectMapper) {
+        return properties -> properties.put(AvailableSettings.JSON_FORMAT_MAPPER,
+                new JacksonJsonFormatMapper(objectMapper));
+    }
+}
@@ -1,12 +1,14 @@
 package com.food_supply_chain.config;
 
+import com.food_supply_chain.security.UserPrincipal;
+import com.food_supply_chain.service.CurrentUserService;
 import com.food_supply_chain.service.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -14,16 +16,18 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final CurrentUserService currentUserService;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, CurrentUserService currentUserService) {
         this.jwtService = jwtService;
+        this.currentUserService = currentUserService;
     }
 
     @Override
@@ -36,16 +40,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String jwt = authHeader.substring(7);
-        String username = jwtService.getUsernameFromToken(jwt);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtService.validateToken(jwt)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // One signature check per token at most; repeat requests are served from the verified-token cache
+            Optional<UserPrincipal> principal = jwtService.verify(jwt).flatMap(this::resolvePrincipal);
+            if (principal.isPresent()) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username, null, new ArrayList<>());
+                        principal.get(), null, principal.get().authorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private Optional<UserPrincipal> resolvePrincipal(Claims claims) {
+        Optional<UserPrincipal> fromClaims = jwtService.getPrincipal(claims);
+        if (fromClaims.isPresent()) {
+            // Role and permissions come from the token; only its version is checked, against a cached value
+            return fromClaims.filter(currentUserService::isCurrentTokenVersion);
+        }
+
+        // Tokens issued before identity claims were added: load the user (from a short-lived cache)
+        return currentUserService.loadPrincipal(claims.getSubject()).filter(UserPrincipal::enabled);
+    }
+}
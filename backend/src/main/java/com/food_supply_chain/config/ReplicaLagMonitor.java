@@ -0,0 +1,70 @@
+package com.food_supply_chain.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Periodically measures how far the replica's replay is behind the primary.
+ * The replica is only used while the lag is within the configured maximum; until the first check
+ * succeeds, and whenever it fails, reads go to the primary.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Zero when everything received has been replayed, since the last replay time only moves when the primary writes
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final double maxLagSeconds;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, double maxLagSeconds, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+        this.maxLagSeconds = maxLagSeconds;
+
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag != null ? lag : 0;
+            usable = lagSeconds <= maxLagSeconds;
+            if (!usable && replicaUsable) {
+                log.warn("Replica is {}s behind the primary; sending reads to the primary", lagSeconds);
+            }
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica lag check failed; sending reads to the primary", e);
+            }
+        }
+
+        if (usable && !replicaUsable) {
+            log.info("Replica is caught up; sending read-only transactions to it");
+        }
+        replicaUsable = usable;
+    }
+}
@@ -0,0 +1,54 @@
+package com.food_supply_chain.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes connections of read-only transactions to the replica while {@link ReplicaLagMonitor} reports it
+ * as caught up, and all other connections to the primary.
+ * A read-only method called from a read-write transaction joins that transaction and stays on the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter replicaFallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.primaryConnections = Counter.builder("datasource.routing.connections")
+                .tag("pool", "primary")
+                .register(meterRegistry);
+        this.replicaConnections = Counter.builder("datasource.routing.connections")
+                .tag("pool", "replica")
+                .register(meterRegistry);
+        this.replicaFallbacks = Counter.builder("datasource.routing.replica.fallbacks")
+                .description("Read-only transactions sent to the primary because the replica was lagging or down")
+                .register(meterRegistry);
+
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (lagMonitor.isReplicaUsable()) {
+                replicaConnections.increment();
+                return Target.REPLICA;
+            }
+            replicaFallbacks.increment();
+        }
+        primaryConnections.increment();
+        return Target.PRIMARY;
+    }
+}
@@ -2,7 +2,11 @@ package com.food_supply_chain.controller;
 
 import com.food_supply_chain.model.dto.BatchDTO;
 import com.food_supply_chain.model.dto.BatchEventDTO;
+import com.food_supply_chain.model.dto.BatchStatsDTO;
+import com.food_supply_chain.model.dto.CursorPageDTO;
+import com.food_supply_chain.model.dto.DtoView;
 import com.food_supply_chain.service.BatchService;
+import com.food_supply_chain.service.BatchStatisticsService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,10 +19,12 @@ import java.util.List;
 @RequestMapping("/api/batches")
 public class BatchController {
     private final BatchService batchService;
+    private final BatchStatisticsService batchStatisticsService;
 
     @Autowired
-    public BatchController(BatchService batchService) {
+    public BatchController(BatchService batchService, BatchStatisticsService batchStatisticsService) {
         this.batchService = batchService;
+        this.batchStatisticsService = batchStatisticsService;
     }
 
     @PostMapping
@@ -36,19 +42,54 @@ public class BatchController {
         return ResponseEntity.ok(batchService.getBatchByCode(batchCode));
     }
 
+    /**
+     * Batch lists leave out events unless view=DETAIL is requested
+     */
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<BatchDTO>> getBatchesByProduct(@PathVariable Long productId) {
-        return ResponseEntity.ok(batchService.getBatchesByProduct(productId));
+    public ResponseEntity<List<BatchDTO>> getBatchesByProduct(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "SUMMARY") String view) {
+        return ResponseEntity.ok(batchService.getBatchesByProduct(productId, DtoView.parse(view)));
     }
 
     @GetMapping
-    public ResponseEntity<List<BatchDTO>> getBatchesByCurrentUser() {
-        return ResponseEntity.ok(batchService.getBatchesByCurrentUser());
+    public ResponseEntity<List<BatchDTO>> getBatchesByCurrentUser(@RequestParam(defaultValue = "SUMMARY") String view) {
+        return ResponseEntity.ok(batchService.getBatchesByCurrentUser(DtoView.parse(view)));
+    }
+
+    /**
+     * Number of the current user's batches per status, for dashboards
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<BatchStatsDTO> getCurrentUserStats() {
+        return ResponseEntity.ok(batchStatisticsService.getCurrentUserStats());
+    }
+
+    /**
+     * Number of batches per status across all users
+     */
+    @GetMapping("/stats/global")
+    public ResponseEntity<BatchStatsDTO> getGlobalStats() {
+        return ResponseEntity.ok(batchStatisticsService.getGlobalStats());
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<BatchDTO>> getBatchesByStatus(@PathVariable String status) {
-        return ResponseEntity.ok(batchService.getBatchesByStatus(status));
+    public ResponseEntity<List<BatchDTO>> getBatchesByStatus(
+            @PathVariable String status,
+            @RequestParam(defaultValue = "SUMMARY") String view) {
+        return ResponseEntity.ok(batchService.getBatchesByStatus(status, DtoView.parse(view)));
+    }
+
+    /**
+     * Keyset-paginated batches with the given status, newest first; pass the returned nextCursor to get the next page
+     */
+    @GetMapping("/status/{status}/paged")
+    public ResponseEntity<CursorPageDTO<BatchDTO>> getBatchesByStatusPaged(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "SUMMARY") String view) {
+        return ResponseEntity.ok(batchService.getBatchesByStatus(status, cursor, size, DtoView.parse(view)));
     }
 
     @PutMapping("/{id}/status")
@@ -70,8 +111,19 @@ public class BatchController {
     }
 
     @GetMapping("/expiring")
-    public ResponseEntity<List<BatchDTO>> getExpiringBatches(@RequestParam(defaultValue = "7") int days) {
-        return ResponseEntity.ok(batchService.getExpiringBatches(days));
+    public ResponseEntity<List<BatchDTO>> getExpiringBatches(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "SUMMARY") String view) {
+        return ResponseEntity.ok(batchService.getExpiringBatches(days, DtoView.parse(view)));
+    }
+
+    @GetMapping("/expiring/paged")
+    public ResponseEntity<CursorPageDTO<BatchDTO>> getExpiringBatchesPaged(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "SUMMARY") String view) {
+        return ResponseEntity.ok(batchService.getExpiringBatches(days, cursor, size, DtoView.parse(view)));
     }
 
     @ExceptionHandler(RuntimeException.class)
@@ -1,7 +1,10 @@
 package com.food_supply_chain.controller;
 
+import com.food_supply_chain.model.dto.ConditionThresholdsDTO;
+import com.food_supply_chain.model.dto.EnvironmentalHistoryDTO;
 import com.food_supply_chain.model.dto.ProductDTO;
 import com.food_supply_chain.model.dto.ProductEnvironmentalConditionDTO;
+import com.food_supply_chain.service.EnvironmentalRollupService;
 import com.food_supply_chain.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,20 +12,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
     private final ProductService productService;
+    private final EnvironmentalRollupService rollupService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, EnvironmentalRollupService rollupService) {
         this.productService = productService;
+        this.rollupService = rollupService;
     }
 
     @PostMapping
@@ -77,14 +84,41 @@ public class ProductController {
         return ResponseEntity.ok(productService.addEnvironmentalCondition(id, conditionDTO));
     }
 
+    @GetMapping("/{id}/condition-thresholds")
+    public ResponseEntity<ConditionThresholdsDTO> getConditionThresholds(@PathVariable Long id) {
+        return ResponseEntity.ok(productService.getConditionThresholds(id));
+    }
+
+    @PutMapping("/{id}/condition-thresholds")
+    public ResponseEntity<ConditionThresholdsDTO> updateConditionThresholds(
+            @PathVariable Long id,
+            @Valid @RequestBody ConditionThresholdsDTO thresholdsDTO) {
+        return ResponseEntity.ok(productService.updateConditionThresholds(id, thresholdsDTO));
+    }
+
     @GetMapping("/{id}/environmental-conditions")
-    public ResponseEntity<List<ProductEnvironmentalConditionDTO>> getProductEnvironmentalConditions(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductEnvironmentalConditions(id));
+    public ResponseEntity<List<ProductEnvironmentalConditionDTO>> getProductEnvironmentalConditions(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(productService.getProductEnvironmentalConditions(id, from, to));
+    }
+
+    @GetMapping("/{id}/environmental-history")
+    public ResponseEntity<EnvironmentalHistoryDTO> getEnvironmentalHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String resolution) {
+        return ResponseEntity.ok(rollupService.getHistory(id, from, to, resolution));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String keyword) {
-        return ResponseEntity.ok(productService.searchProducts(keyword));
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.searchProducts(keyword, page, size));
     }
 
     @GetMapping("/type/{productType}")
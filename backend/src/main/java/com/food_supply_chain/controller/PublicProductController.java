@@ -1,16 +1,19 @@
 package com.food_supply_chain.controller;
 
-import com.food_supply_chain.exception.ResourceNotFoundException;
+import com.food_supply_chain.config.CacheConfig;
 import com.food_supply_chain.model.dto.BatchDTO;
 import com.food_supply_chain.model.dto.BatchEventDTO;
 import com.food_supply_chain.model.dto.ProductDTO;
 import com.food_supply_chain.service.BatchService;
 import com.food_supply_chain.service.ProductService;
+import com.food_supply_chain.service.PublicTrackingCache;
+import com.food_supply_chain.service.TrackingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,11 +23,16 @@ public class PublicProductController {
 
     private final ProductService productService;
     private final BatchService batchService;
+    private final TrackingService trackingService;
+    private final PublicTrackingCache publicTrackingCache;
 
     @Autowired
-    public PublicProductController(ProductService productService, BatchService batchService) {
+    public PublicProductController(ProductService productService, BatchService batchService,
+                                   TrackingService trackingService, PublicTrackingCache publicTrackingCache) {
         this.productService = productService;
         this.batchService = batchService;
+        this.trackingService = trackingService;
+        this.publicTrackingCache = publicTrackingCache;
     }
 
     /**
@@ -40,7 +48,7 @@ public class PublicProductController {
      */
     @GetMapping("/batch/{batchCode}")
     public ResponseEntity<BatchDTO> getBatchByCode(@PathVariable String batchCode) {
-        return ResponseEntity.ok(batchService.getBatchByCode(batchCode));
+        return ResponseEntity.ok(getPublicBatch(batchCode));
     }
 
     /**
@@ -48,42 +56,39 @@ public class PublicProductController {
      */
     @GetMapping("/batch/{batchCode}/events")
     public ResponseEntity<List<BatchEventDTO>> getBatchEventsByCode(@PathVariable String batchCode) {
-        BatchDTO batch = batchService.getBatchByCode(batchCode);
+        BatchDTO batch = getPublicBatch(batchCode);
         return ResponseEntity.ok(batchService.getBatchEvents(batch.getId()));
     }
 
     /**
-     * Get complete product journey by batch code
+     * Get complete product journey by batch code.
+     * A matching If-None-Match is answered from the version alone, without loading the journey; otherwise the
+     * ETag is the tracking version stored with the cached journey, so it always describes the body sent with it.
      */
     @GetMapping("/journey/{batchCode}")
-    public ResponseEntity<Map<String, Object>> getProductJourney(@PathVariable String batchCode) {
-        Map<String, Object> journey = new HashMap<>();
-
-        try {
-            // First get batch information by batch code
-            BatchDTO batch = batchService.getBatchByCode(batchCode);
-            journey.put("batch", batch);
-
-            // Then use the productId from the batch to get product information
-            ProductDTO product = productService.getProduct(batch.getProductId());
-            journey.put("product", product);
-
-            // Get batch events for journey tracking
-            List<BatchEventDTO> events = batchService.getBatchEvents(batch.getId());
-            journey.put("events", events);
-
-            return ResponseEntity.ok(journey);
-        } catch (ResourceNotFoundException e) {
-            throw new ResourceNotFoundException("No journey found for batch code: " + batchCode);
+    public ResponseEntity<Map<String, Object>> getProductJourney(@PathVariable String batchCode, WebRequest request) {
+        if (request.checkNotModified(
+                publicTrackingCache.currentVersionTag(CacheConfig.PUBLIC_JOURNEY_CACHE, batchCode))) {
+            return null;
         }
+
+        PublicTrackingCache.Versioned<Map<String, Object>> journey = publicTrackingCache.get(
+                CacheConfig.PUBLIC_JOURNEY_CACHE, batchCode, () -> trackingService.getJourney(batchCode));
+        return ResponseEntity.ok()
+                .eTag(journey.versionTag())
+                .cacheControl(CacheControl.noCache())
+                .body(journey.value());
     }
 
     /**
      * Search for products (basic public search functionality)
      */
     @GetMapping("/products/search")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String keyword) {
-        return ResponseEntity.ok(productService.searchProducts(keyword));
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.searchProducts(keyword, page, size));
     }
 
     /**
@@ -101,4 +106,9 @@ public class PublicProductController {
     public ResponseEntity<List<ProductDTO>> getOrganicProducts() {
         return ResponseEntity.ok(productService.getOrganicProducts());
     }
-}
\ No newline at end of file
+
+    private BatchDTO getPublicBatch(String batchCode) {
+        return publicTrackingCache.get(CacheConfig.PUBLIC_BATCH_CACHE, batchCode,
+                () -> trackingService.getPublicBatch(batchCode)).value();
+    }
+}
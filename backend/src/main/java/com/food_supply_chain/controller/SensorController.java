@@ -0,0 +1,62 @@
+package com.food_supply_chain.controller;
+
+import com.food_supply_chain.model.dto.SensorDeviceDTO;
+import com.food_supply_chain.model.dto.SensorIngestResultDTO;
+import com.food_supply_chain.model.dto.SensorReadingBatchDTO;
+import com.food_supply_chain.service.SensorDeviceService;
+import com.food_supply_chain.service.SensorIngestionService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/sensors")
+public class SensorController {
+    private final SensorIngestionService sensorIngestionService;
+    private final SensorDeviceService sensorDeviceService;
+
+    @Autowired
+    public SensorController(SensorIngestionService sensorIngestionService, SensorDeviceService sensorDeviceService) {
+        this.sensorIngestionService = sensorIngestionService;
+        this.sensorDeviceService = sensorDeviceService;
+    }
+
+    /**
+     * Upload a batch of logger readings. Readings are stored asynchronously (202 Accepted);
+     * 429 Too Many Requests with a Retry-After header means none were taken and the batch should be resent.
+     * A device ID must be registered to the caller through /api/sensors/devices.
+     */
+    @PostMapping("/readings")
+    public ResponseEntity<SensorIngestResultDTO> submitReadings(@Valid @RequestBody SensorReadingBatchDTO batch) {
+        return new ResponseEntity<>(sensorIngestionService.submit(batch), HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Register a logger to the current user; uploads with its device ID are only accepted from that user
+     */
+    @PostMapping("/devices")
+    public ResponseEntity<SensorDeviceDTO> registerDevice(@Valid @RequestBody SensorDeviceDTO deviceDTO) {
+        return new ResponseEntity<>(sensorDeviceService.registerDevice(deviceDTO), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/devices")
+    public ResponseEntity<List<SensorDeviceDTO>> getMyDevices() {
+        return ResponseEntity.ok(sensorDeviceService.getMyDevices());
+    }
+
+    @DeleteMapping("/devices/{deviceId}")
+    public ResponseEntity<Void> removeDevice(@PathVariable String deviceId) {
+        sensorDeviceService.removeDevice(deviceId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.food_supply_chain.controller;
 
 import com.food_supply_chain.model.User;
+import com.food_supply_chain.model.dto.BulkEventResultDTO;
+import com.food_supply_chain.model.dto.CursorPageDTO;
 import com.food_supply_chain.model.dto.SupplyChainEventDTO;
 import com.food_supply_chain.service.SupplyChainEventService;
 import jakarta.validation.Valid;
@@ -10,9 +12,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +37,15 @@ public class SupplyChainEventController {
         return new ResponseEntity<>(eventService.createEvent(eventDTO), HttpStatus.CREATED);
     }
 
+    /**
+     * Create many events in one request (e.g. pallet scans at a distribution centre).
+     * Each item gets its own result; items that cannot be resolved are reported and skipped.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkEventResultDTO>> createEvents(@RequestBody List<SupplyChainEventDTO> eventDTOs) {
+        return ResponseEntity.ok(eventService.createEvents(eventDTOs));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SupplyChainEventDTO> getEvent(@PathVariable Long id) {
         return ResponseEntity.ok(eventService.getEvent(id));
@@ -42,6 +56,17 @@ public class SupplyChainEventController {
         return ResponseEntity.ok(eventService.getEventsByBatch(batchId));
     }
 
+    /**
+     * Keyset-paginated events of a batch, newest first; pass the returned nextCursor to get the next page
+     */
+    @GetMapping("/batch/{batchId}/paged")
+    public ResponseEntity<CursorPageDTO<SupplyChainEventDTO>> getEventsByBatchPaged(
+            @PathVariable Long batchId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(eventService.getEventsByBatch(batchId, cursor, size));
+    }
+
     @GetMapping("/batch/code/{batchCode}")
     public ResponseEntity<List<SupplyChainEventDTO>> getEventsByBatchCode(@PathVariable String batchCode) {
         return ResponseEntity.ok(eventService.getEventsByBatchCode(batchCode));
@@ -52,6 +77,14 @@ public class SupplyChainEventController {
         return ResponseEntity.ok(eventService.getEventsByProductId(productId));
     }
 
+    @GetMapping("/product/{productId}/paged")
+    public ResponseEntity<CursorPageDTO<SupplyChainEventDTO>> getEventsByProductIdPaged(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(eventService.getEventsByProductId(productId, cursor, size));
+    }
+
     @GetMapping("/dateRange")
     public ResponseEntity<List<SupplyChainEventDTO>> getEventsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
@@ -59,6 +92,43 @@ public class SupplyChainEventController {
         return ResponseEntity.ok(eventService.getEventsByDateRange(startDate, endDate));
     }
 
+    @GetMapping("/dateRange/paged")
+    public ResponseEntity<CursorPageDTO<SupplyChainEventDTO>> getEventsByDateRangePaged(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(eventService.getEventsByDateRange(startDate, endDate, cursor, size));
+    }
+
+    /**
+     * Export all events of a date range as newline-delimited JSON (one event per line, oldest first).
+     * The response is streamed from a database cursor, so arbitrarily large ranges can be exported.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEventsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        StreamingResponseBody body = out -> eventService.exportEventsByDateRange(startDate, endDate, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"events.ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * Events whose additional data has the given value for a key, e.g. ?key=sensorId&value=T-17
+     */
+    @GetMapping("/additionalData")
+    public ResponseEntity<Page<SupplyChainEventDTO>> getEventsByAdditionalData(
+            @RequestParam String key,
+            @RequestParam String value,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(eventService.getEventsByAdditionalData(key, value, page, size));
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<Page<SupplyChainEventDTO>> getEventsByUserInvolved(
             @PathVariable Long userId,
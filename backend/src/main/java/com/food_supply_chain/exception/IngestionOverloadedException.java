@@ -0,0 +1,14 @@
+package com.food_supply_chain.exception;
+
+public class IngestionOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public IngestionOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -4,6 +4,7 @@ import com.food_supply_chain.model.Batch;
 import com.food_supply_chain.model.BatchEvent;
 import com.food_supply_chain.model.dto.BatchDTO;
 import com.food_supply_chain.model.dto.BatchEventDTO;
+import com.food_supply_chain.model.dto.DtoView;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -13,12 +14,19 @@ import java.util.stream.Collectors;
 public class BatchMapper {
 
     public BatchDTO toDTO(Batch batch) {
+        return toDTO(batch, DtoView.DETAIL);
+    }
+
+    /**
+     * @param view SUMMARY leaves the events out without initializing the collection
+     */
+    public BatchDTO toDTO(Batch batch, DtoView view) {
         if (batch == null) {
             return null;
         }
 
         List<BatchEventDTO> eventDTOs = null;
-        if (batch.getEvents() != null && !batch.getEvents().isEmpty()) {
+        if (view == DtoView.DETAIL && batch.getEvents() != null && !batch.getEvents().isEmpty()) {
             eventDTOs = batch.getEvents().stream()
                     .map(this::toEventDTO)
                     .collect(Collectors.toList());
@@ -1,5 +1,6 @@
 package com.food_supply_chain.mapper;
 
+import com.food_supply_chain.model.EnvironmentalReading;
 import com.food_supply_chain.model.Product;
 import com.food_supply_chain.model.ProductEnvironmentalCondition;
 import com.food_supply_chain.model.dto.ProductDTO;
@@ -7,8 +8,6 @@ import com.food_supply_chain.model.dto.ProductEnvironmentalConditionDTO;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class ProductMapper {
@@ -18,13 +17,6 @@ public class ProductMapper {
             return null;
         }
 
-        List<ProductEnvironmentalConditionDTO> environmentalConditions = null;
-        if (product.getEnvironmentalConditions() != null && !product.getEnvironmentalConditions().isEmpty()) {
-            environmentalConditions = product.getEnvironmentalConditions().stream()
-                    .map(this::toEnvironmentalConditionDTO)
-                    .collect(Collectors.toList());
-        }
-
         return new ProductDTO(
                 product.getId(),
                 product.getBatchCode(),
@@ -42,7 +34,8 @@ public class ProductMapper {
                 product.getCultivationMethod(),
                 product.getQrCodeUrl(),
                 product.getImageUrl(),
-                environmentalConditions
+                // Readings are served by the environmental history and conditions endpoints, never embedded
+                null
         );
     }
 
@@ -148,6 +141,28 @@ public class ProductMapper {
         );
     }
 
+    public ProductEnvironmentalConditionDTO toEnvironmentalConditionDTO(Long productId, EnvironmentalReading reading) {
+        if (reading == null) {
+            return null;
+        }
+
+        // Archived readings have no ID
+        return new ProductEnvironmentalConditionDTO(
+                null,
+                productId,
+                reading.timestamp(),
+                reading.temperature(),
+                reading.humidity(),
+                reading.lightExposure(),
+                reading.soilMoisture(),
+                reading.soilPh(),
+                reading.airQuality(),
+                reading.recordedBy(),
+                reading.location(),
+                reading.notes()
+        );
+    }
+
     public ProductEnvironmentalCondition toEnvironmentalConditionEntity(ProductEnvironmentalConditionDTO dto, Product product) {
         if (dto == null) {
             return null;
@@ -4,11 +4,14 @@ import com.food_supply_chain.model.Batch;
 import com.food_supply_chain.model.SupplyChainEvent;
 import com.food_supply_chain.model.User;
 import com.food_supply_chain.model.dto.SupplyChainEventDTO;
+import com.food_supply_chain.repository.SupplyChainEventRow;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Component
 public class SupplyChainEventMapper {
-
     public SupplyChainEventDTO toDTO(SupplyChainEvent event) {
         if (event == null) {
             return null;
@@ -38,11 +41,34 @@ public class SupplyChainEventMapper {
         dto.setHumidity(event.getHumidity());
         dto.setNotes(event.getNotes());
         dto.setBlockchainTxHash(event.getBlockchainTxHash());
-        dto.setAdditionalData(event.getAdditionalDataMap());
+        dto.setAdditionalData(copyAdditionalData(event.getAdditionalData()));
 
         return dto;
     }
 
+    public SupplyChainEventDTO toDTO(SupplyChainEventRow row) {
+        if (row == null) {
+            return null;
+        }
+
+        return new SupplyChainEventDTO(
+                row.getId(),
+                row.getEventType().name(),
+                row.getBatchId(),
+                row.getBatchCode(),
+                row.getInitiatedByUsername(),
+                row.getReceivedByUsername(),
+                row.getTimestamp(),
+                row.getLocation(),
+                row.getGeoCoordinates(),
+                row.getTemperature(),
+                row.getHumidity(),
+                row.getNotes(),
+                row.getBlockchainTxHash(),
+                copyAdditionalData(row.getAdditionalData())
+        );
+    }
+
     public SupplyChainEvent toEntity(SupplyChainEventDTO dto, Batch batch, User initiatedBy, User receivedBy) {
         if (dto == null) {
             return null;
@@ -71,9 +97,18 @@ public class SupplyChainEventMapper {
         event.setBlockchainTxHash(dto.getBlockchainTxHash());
 
         if (dto.getAdditionalData() != null) {
-            event.setAdditionalDataMap(dto.getAdditionalData());
+            event.setAdditionalData(copyAdditionalData(dto.getAdditionalData()));
         }
 
         return event;
     }
-}
\ No newline at end of file
+
+    /**
+     * Copies additional data so that DTOs and entities never share a mutable map
+     * @param additionalData Parsed additional data, possibly null
+     * @return A new map, empty when there is no additional data
+     */
+    public Map<String, String> copyAdditionalData(Map<String, String> additionalData) {
+        return additionalData != null ? new HashMap<>(additionalData) : new HashMap<>();
+    }
+}
@@ -10,8 +10,16 @@ import java.util.List;
 
 @Entity
 @Table(name = "batches")
+@NamedEntityGraph(name = Batch.DTO_GRAPH, attributeNodes = {
+        @NamedAttributeNode("product"),
+        @NamedAttributeNode("createdBy")
+})
 @Data
 public class Batch {
+    // Associations BatchMapper.toDTO reads; events and their recorders are batch-fetched instead,
+    // since fetching a collection in the same query would break pagination
+    public static final String DTO_GRAPH = "Batch.dto";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -19,7 +27,7 @@ public class Batch {
     @Column(name = "batch_code", nullable = false, unique = true)
     private String batchCode;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -42,13 +50,17 @@ public class Batch {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by_id", nullable = false)
     private User createdBy;
 
     @Column(name = "notes", length = 1000)
     private String notes;
 
+    // Only ever changed by BatchRepository.incrementTrackingVersions, so a stale value is never written back
+    @Column(name = "tracking_version", nullable = false, insertable = false, updatable = false)
+    private Long trackingVersion;
+
     // One batch can have multiple events
     @OneToMany(mappedBy = "batch", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BatchEvent> events = new ArrayList<>();
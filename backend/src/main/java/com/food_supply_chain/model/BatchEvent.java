@@ -7,17 +7,21 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "batch_events")
+@NamedEntityGraph(name = BatchEvent.DTO_GRAPH, attributeNodes = @NamedAttributeNode("recordedBy"))
 @Data
 public class BatchEvent {
+    // Associations BatchMapper.toEventDTO reads
+    public static final String DTO_GRAPH = "BatchEvent.dto";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "batch_id", nullable = false)
     private Batch batch;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recorded_by_id", nullable = false)
     private User recordedBy;
 
@@ -0,0 +1,27 @@
+package com.food_supply_chain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Entity
+@Table(name = "batch_status_counters")
+@IdClass(BatchStatusCounter.Key.class)
+@Data
+public class BatchStatusCounter {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Batch.BatchStatus status;
+
+    @Column(name = "batch_count", nullable = false)
+    private long batchCount;
+
+    public record Key(Long userId, Batch.BatchStatus status) implements Serializable {
+    }
+}
@@ -0,0 +1,11 @@
+package com.food_supply_chain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Values of an archived {@link ProductEnvironmentalCondition}; archived readings no longer have an ID
+ */
+public record EnvironmentalReading(LocalDateTime timestamp, Double temperature, Double humidity,
+                                   Double lightExposure, Double soilMoisture, Double soilPh, Double airQuality,
+                                   String recordedBy, String location, String notes) {
+}
@@ -0,0 +1,93 @@
+package com.food_supply_chain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Aggregate of one product's environmental readings within one minute, hour or day (see migration V11).
+ * Rows are only written through EnvironmentalRollupRepository.MERGE_READINGS.
+ */
+@Entity
+@Table(name = "environmental_rollups")
+@IdClass(EnvironmentalRollup.Key.class)
+@Data
+public class EnvironmentalRollup {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Resolution resolution;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "reading_count", nullable = false)
+    private long readingCount;
+
+    @Column(name = "temperature_count", nullable = false)
+    private long temperatureCount;
+
+    @Column(name = "temperature_min")
+    private Double temperatureMin;
+
+    @Column(name = "temperature_max")
+    private Double temperatureMax;
+
+    @Column(name = "temperature_sum")
+    private Double temperatureSum;
+
+    @Column(name = "humidity_count", nullable = false)
+    private long humidityCount;
+
+    @Column(name = "humidity_min")
+    private Double humidityMin;
+
+    @Column(name = "humidity_max")
+    private Double humidityMax;
+
+    @Column(name = "humidity_sum")
+    private Double humiditySum;
+
+    public Double getTemperatureMean() {
+        return temperatureCount > 0 && temperatureSum != null ? temperatureSum / temperatureCount : null;
+    }
+
+    public Double getHumidityMean() {
+        return humidityCount > 0 && humiditySum != null ? humiditySum / humidityCount : null;
+    }
+
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public Duration duration() {
+            return unit.getDuration();
+        }
+
+        /**
+         * Start of the bucket containing the given time
+         */
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+
+    public record Key(Long productId, Resolution resolution, LocalDateTime bucketStart) implements Serializable {
+    }
+}
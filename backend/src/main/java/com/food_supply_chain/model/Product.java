@@ -10,8 +10,12 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
+@NamedEntityGraph(name = Product.DTO_GRAPH, attributeNodes = @NamedAttributeNode("createdBy"))
 @Data
 public class Product {
+    // Associations ProductMapper.toDTO reads; it never reads the environmental conditions
+    public static final String DTO_GRAPH = "Product.dto";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -31,7 +35,7 @@ public class Product {
     @Column(nullable = false)
     private Integer stock;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "farmer_id", nullable = false)
     private User createdBy;
 
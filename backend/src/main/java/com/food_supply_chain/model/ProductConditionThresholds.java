@@ -0,0 +1,37 @@
+package com.food_supply_chain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Storage limits for one product's environmental readings; null fields use the application defaults
+ */
+@Entity
+@Table(name = "product_condition_thresholds")
+@Data
+public class ProductConditionThresholds {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "min_temperature")
+    private Double minTemperature; // in Celsius
+
+    @Column(name = "max_temperature")
+    private Double maxTemperature; // in Celsius
+
+    @Column(name = "min_humidity")
+    private Double minHumidity; // percentage
+
+    @Column(name = "max_humidity")
+    private Double maxHumidity; // percentage
+
+    @Column(name = "max_excursion_minutes")
+    private Integer maxExcursionMinutes; // How long a reading may stay out of range before it is an issue
+
+    @Column(name = "max_temperature_change_per_minute")
+    private Double maxTemperatureChangePerMinute; // in Celsius per minute
+
+    @Column(name = "max_degree_minutes")
+    private Double maxDegreeMinutes; // Cumulative degrees above maxTemperature times minutes
+}
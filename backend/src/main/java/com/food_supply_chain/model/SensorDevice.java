@@ -0,0 +1,27 @@
+package com.food_supply_chain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A logger registered to upload readings on behalf of one user, optionally for one product only
+ */
+@Entity
+@Table(name = "sensor_devices")
+@Data
+public class SensorDevice {
+    @Id
+    @Column(name = "device_id")
+    private String deviceId;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "product_id")
+    private Long productId; // Null when the device may record readings for any product
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
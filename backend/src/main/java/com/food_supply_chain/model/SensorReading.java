@@ -0,0 +1,10 @@
+package com.food_supply_chain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * An accepted sensor reading waiting in the ingestion buffer, stored as a {@link ProductEnvironmentalCondition}
+ */
+public record SensorReading(long productId, LocalDateTime timestamp, Double temperature, Double humidity,
+                            String recordedBy, String location) {
+}
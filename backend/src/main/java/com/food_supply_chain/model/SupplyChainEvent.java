@@ -2,6 +2,8 @@ package com.food_supply_chain.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -9,8 +11,16 @@ import java.util.Map;
 
 @Entity
 @Table(name = "supply_chain_events")
+@NamedEntityGraph(name = SupplyChainEvent.DTO_GRAPH, attributeNodes = {
+        @NamedAttributeNode("batch"),
+        @NamedAttributeNode("initiatedBy"),
+        @NamedAttributeNode("receivedBy")
+})
 @Data
 public class SupplyChainEvent {
+    // Associations SupplyChainEventMapper.toDTO reads
+    public static final String DTO_GRAPH = "SupplyChainEvent.dto";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -19,15 +29,15 @@ public class SupplyChainEvent {
     @Enumerated(EnumType.STRING)
     private EventType eventType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "batch_id")
     private Batch batch;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "initiated_by_id", nullable = false)
     private User initiatedBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "received_by_id")
     private User receivedBy;
 
@@ -52,8 +62,10 @@ public class SupplyChainEvent {
     @Column(name = "blockchain_tx_hash")
     private String blockchainTxHash;
 
-    @Column(name = "additional_data", columnDefinition = "TEXT")
-    private String additionalData; // Stored as JSON
+    // Stored as jsonb; (de)serialized once per load and save by Hibernate's shared JSON format mapper
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "additional_data", columnDefinition = "jsonb")
+    private Map<String, String> additionalData;
 
     public enum EventType {
         CREATED,
@@ -81,33 +93,13 @@ public class SupplyChainEvent {
 
     // Helper methods for additional data
     public void setAdditionalDataField(String key, String value) {
-        Map<String, String> dataMap = getAdditionalDataMap();
-        dataMap.put(key, value);
-        setAdditionalDataMap(dataMap);
-    }
-
-    public String getAdditionalDataField(String key) {
-        return getAdditionalDataMap().get(key);
-    }
-
-    public Map<String, String> getAdditionalDataMap() {
-        if (additionalData == null || additionalData.isEmpty()) {
-            return new HashMap<>();
-        }
-        try {
-            return new com.fasterxml.jackson.databind.ObjectMapper().readValue(
-                    additionalData,
-                    new com.fasterxml.jackson.core.type.TypeReference<HashMap<String, String>>() {});
-        } catch (Exception e) {
-            return new HashMap<>();
+        if (additionalData == null) {
+            additionalData = new HashMap<>();
         }
+        additionalData.put(key, value);
     }
 
-    public void setAdditionalDataMap(Map<String, String> dataMap) {
-        try {
-            this.additionalData = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(dataMap);
-        } catch (Exception e) {
-            this.additionalData = "{}";
-        }
+    public String getAdditionalDataField(String key) {
+        return additionalData != null ? additionalData.get(key) : null;
     }
-}
\ No newline at end of file
+}
@@ -58,6 +58,10 @@ public class User {
 
     private boolean verified = false;
 
+    // Only ever changed by UserRepository.incrementTokenVersion, so a stale value is never written back
+    @Column(name = "token_version", nullable = false, insertable = false, updatable = false)
+    private Long tokenVersion;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
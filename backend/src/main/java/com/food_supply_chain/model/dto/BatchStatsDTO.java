@@ -0,0 +1,15 @@
+package com.food_supply_chain.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStatsDTO {
+    private Map<String, Long> countsByStatus; // Every status is present, in lifecycle order, zero when there are none
+    private long total;
+}
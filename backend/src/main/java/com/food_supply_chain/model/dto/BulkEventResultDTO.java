@@ -0,0 +1,15 @@
+package com.food_supply_chain.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEventResultDTO {
+    private int index; // Position of the event in the submitted list
+    private boolean success;
+    private SupplyChainEventDTO event;
+    private String error;
+}
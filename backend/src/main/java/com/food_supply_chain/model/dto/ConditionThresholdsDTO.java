@@ -0,0 +1,26 @@
+package com.food_supply_chain.model.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Anomaly detection limits of a product. On reads every field is filled in, with defaults where
+ * the product has no own value; on writes null fields reset to the default.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConditionThresholdsDTO {
+    private Double minTemperature;
+    private Double maxTemperature;
+    private Double minHumidity;
+    private Double maxHumidity;
+    @Positive
+    private Integer maxExcursionMinutes;
+    @Positive
+    private Double maxTemperatureChangePerMinute;
+    @Positive
+    private Double maxDegreeMinutes;
+}
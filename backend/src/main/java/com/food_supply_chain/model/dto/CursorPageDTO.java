@@ -0,0 +1,16 @@
+package com.food_supply_chain.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // Pass back as ?cursor= to get the following page; null on the last page
+    private boolean hasNext;
+}
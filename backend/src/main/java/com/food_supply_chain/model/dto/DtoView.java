@@ -0,0 +1,24 @@
+package com.food_supply_chain.model.dto;
+
+import java.util.Locale;
+
+/**
+ * How much of an entity a list endpoint returns, selected with its view request parameter.
+ * SUMMARY leaves child collections out and never loads them; DETAIL includes them, loaded with one extra query.
+ */
+public enum DtoView {
+    SUMMARY,
+    DETAIL;
+
+    /**
+     * @param view Requested view, case-insensitive
+     * @throws IllegalArgumentException If the view is unknown
+     */
+    public static DtoView parse(String view) {
+        try {
+            return valueOf(view.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid view: " + view + ", expected SUMMARY or DETAIL");
+        }
+    }
+}
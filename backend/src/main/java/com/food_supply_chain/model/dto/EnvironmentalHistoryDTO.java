@@ -0,0 +1,20 @@
+package com.food_supply_chain.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvironmentalHistoryDTO {
+    private Long productId;
+    // RAW, MINUTE, HOUR or DAY; raw points are single readings with min = max = mean
+    private String resolution;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<EnvironmentalRollupDTO> points;
+}
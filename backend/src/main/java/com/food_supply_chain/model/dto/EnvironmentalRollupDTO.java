@@ -0,0 +1,21 @@
+package com.food_supply_chain.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvironmentalRollupDTO {
+    private LocalDateTime bucketStart;
+    private long count;
+    private Double temperatureMin;
+    private Double temperatureMax;
+    private Double temperatureMean;
+    private Double humidityMin;
+    private Double humidityMax;
+    private Double humidityMean;
+}
@@ -28,5 +28,6 @@ public class ProductDTO {
     private String cultivationMethod;
     private String qrCodeUrl;
     private String imageUrl;
+    // Only read on create and update; responses leave it null, see /api/products/{id}/environmental-history
     private List<ProductEnvironmentalConditionDTO> environmentalConditions;
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.food_supply_chain.model.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A registered logger; the owner is always the user who registered it
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorDeviceDTO {
+    @NotBlank
+    @Size(max = 255)
+    private String deviceId;
+    private Long productId; // Restricts the device to this product's readings; any product when absent
+    private LocalDateTime createdAt;
+}
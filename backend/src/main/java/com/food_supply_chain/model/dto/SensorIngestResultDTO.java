@@ -0,0 +1,13 @@
+package com.food_supply_chain.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorIngestResultDTO {
+    private int accepted; // Readings queued for storage
+    private int buffered; // Readings waiting to be written on this node, including these
+}
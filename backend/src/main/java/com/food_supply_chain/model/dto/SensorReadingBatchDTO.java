@@ -0,0 +1,27 @@
+package com.food_supply_chain.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Readings uploaded by one logger in a single request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorReadingBatchDTO {
+    @Size(max = 255)
+    private String deviceId; // Recorded as the source of the readings, must be registered to the caller; the authenticated user when absent
+    @Size(max = 500)
+    private String location;
+
+    @NotEmpty
+    @Size(max = 10000)
+    private List<@Valid SensorReadingDTO> readings;
+}
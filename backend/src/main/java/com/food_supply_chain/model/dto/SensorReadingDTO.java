@@ -0,0 +1,19 @@
+package com.food_supply_chain.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SensorReadingDTO {
+    @NotNull
+    private Long productId;
+    private LocalDateTime timestamp; // Time of measurement on the device; time of receipt when absent
+    private Double temperature; // in Celsius
+    private Double humidity; // percentage
+}
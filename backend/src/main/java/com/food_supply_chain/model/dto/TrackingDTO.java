@@ -0,0 +1,18 @@
+package com.food_supply_chain.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingDTO {
+    private BatchDTO batch;
+    private ProductDTO product;
+    private List<SupplyChainEventDTO> events; // Newest first
+    private Map<String, Object> metrics;
+}
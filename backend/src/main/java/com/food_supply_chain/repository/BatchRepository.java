@@ -3,27 +3,114 @@ package com.food_supply_chain.repository;
 import com.food_supply_chain.model.Batch;
 import com.food_supply_chain.model.Product;
 import com.food_supply_chain.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BatchRepository extends JpaRepository<Batch, Long> {
+    @EntityGraph(Batch.DTO_GRAPH)
     List<Batch> findByCreatedBy(User createdBy);
 
+    @EntityGraph(Batch.DTO_GRAPH)
     List<Batch> findByProduct(Product product);
 
+    @EntityGraph(Batch.DTO_GRAPH)
     Optional<Batch> findByBatchCode(String batchCode);
 
+    /**
+     * Loads a batch and locks its row until the transaction ends, so concurrent status changes of the
+     * batch are applied one after another and each sees the status the previous one left
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Batch b WHERE b.id = :id")
+    Optional<Batch> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Batch b WHERE b.batchCode = :batchCode")
+    Optional<Batch> findByBatchCodeForUpdate(@Param("batchCode") String batchCode);
+
+    /**
+     * Loads and locks several batches; rows are locked in ID order so that overlapping requests cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Batch b WHERE b.id IN :ids ORDER BY b.id")
+    List<Batch> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Batch b WHERE b.batchCode IN :batchCodes")
+    List<Long> findIdsByBatchCodeIn(@Param("batchCodes") Collection<String> batchCodes);
+
+    /**
+     * Initializes the events of already loaded batches, with their recorders, in one query;
+     * used for the DETAIL view of batch lists
+     */
+    @Query("SELECT DISTINCT b FROM Batch b LEFT JOIN FETCH b.events e LEFT JOIN FETCH e.recordedBy WHERE b IN :batches")
+    List<Batch> fetchEvents(@Param("batches") Collection<Batch> batches);
+
+    @Query("SELECT CONCAT(CAST(b.id AS String), '-', CAST(b.trackingVersion AS String)) FROM Batch b WHERE b.batchCode = :batchCode")
+    Optional<String> findTrackingVersionTag(@Param("batchCode") String batchCode);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Batch b SET b.trackingVersion = b.trackingVersion + 1 WHERE b.batchCode IN :batchCodes")
+    int incrementTrackingVersions(@Param("batchCodes") Collection<String> batchCodes);
+
+    @Query("SELECT b.batchCode FROM Batch b WHERE b.product.id = :productId")
+    List<String> findBatchCodesByProductId(@Param("productId") Long productId);
+
+    /**
+     * Loads everything the public tracking page shows for a batch in a single query, one row per
+     * supply chain event (newest first) or a single row with null event columns if there are none
+     * @param batchCode Batch code printed on the QR label
+     * @return Projected rows, empty if the batch does not exist
+     */
+    @Query("SELECT b.id AS batchId, b.batchCode AS batchCode, b.quantity AS quantity, " +
+            "b.productionDate AS productionDate, b.expirationDate AS batchExpirationDate, b.status AS status, " +
+            "b.qrCodeUrl AS batchQrCodeUrl, b.createdAt AS batchCreatedAt, bc.username AS batchCreatedBy, " +
+            "b.notes AS batchNotes, " +
+            "p.id AS productId, p.batchCode AS productBatchCode, p.name AS productName, " +
+            "p.description AS description, p.price AS price, p.stock AS stock, pc.username AS productCreatedBy, " +
+            "p.createdAt AS productCreatedAt, p.harvestDate AS harvestDate, " +
+            "p.expirationDate AS productExpirationDate, p.productType AS productType, p.organic AS organic, " +
+            "p.certification AS certification, p.cultivationMethod AS cultivationMethod, " +
+            "p.qrCodeUrl AS productQrCodeUrl, p.imageUrl AS imageUrl, " +
+            "e.id AS eventId, e.eventType AS eventType, ib.username AS initiatedBy, rb.username AS receivedBy, " +
+            "e.timestamp AS timestamp, e.location AS location, e.geoCoordinates AS geoCoordinates, " +
+            "e.temperature AS temperature, e.humidity AS humidity, e.notes AS eventNotes, " +
+            "e.blockchainTxHash AS blockchainTxHash, e.additionalData AS additionalData " +
+            "FROM Batch b JOIN b.product p JOIN p.createdBy pc JOIN b.createdBy bc " +
+            "LEFT JOIN SupplyChainEvent e ON e.batch = b " +
+            "LEFT JOIN e.initiatedBy ib LEFT JOIN e.receivedBy rb " +
+            "WHERE b.batchCode = :batchCode ORDER BY e.timestamp DESC, e.id DESC")
+    List<TrackingRow> findTrackingRows(@Param("batchCode") String batchCode);
+
+    @EntityGraph(Batch.DTO_GRAPH)
     @Query("SELECT b FROM Batch b WHERE b.expirationDate <= :date")
     List<Batch> findExpiringBatches(@Param("date") LocalDate date);
 
+    @EntityGraph(Batch.DTO_GRAPH)
     @Query("SELECT b FROM Batch b WHERE b.status = :status")
     List<Batch> findByStatus(@Param("status") Batch.BatchStatus status);
 
+    // Keyset-paginated variants of findByStatus and findExpiringBatches
+    @EntityGraph(Batch.DTO_GRAPH)
+    Window<Batch> findByStatusOrderByCreatedAtDescIdDesc(Batch.BatchStatus status, ScrollPosition position, Limit limit);
+
+    @EntityGraph(Batch.DTO_GRAPH)
+    Window<Batch> findByExpirationDateLessThanEqualOrderByExpirationDateAscIdAsc(
+            LocalDate date, ScrollPosition position, Limit limit);
+
+    @EntityGraph(Batch.DTO_GRAPH)
     @Query("SELECT b FROM Batch b WHERE b.createdBy = :user AND b.status = :status")
     List<Batch> findByCreatedByAndStatus(@Param("user") User user, @Param("status") Batch.BatchStatus status);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.BatchStatusCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface BatchStatusCounterRepository extends JpaRepository<BatchStatusCounter, BatchStatusCounter.Key> {
+    @Modifying
+    @Query(value = "INSERT INTO batch_status_counters (user_id, status, batch_count) VALUES (:userId, :status, GREATEST(:delta, 0)) " +
+            "ON CONFLICT (user_id, status) DO UPDATE SET batch_count = GREATEST(batch_status_counters.batch_count + :delta, 0)",
+            nativeQuery = true)
+    void increment(@Param("userId") Long userId, @Param("status") String status, @Param("delta") long delta);
+
+    List<BatchStatusCounter> findByUserId(Long userId);
+
+    @Query("SELECT c.status AS status, SUM(c.batchCount) AS count FROM BatchStatusCounter c GROUP BY c.status")
+    List<BatchStatusTotal> sumByStatus();
+}
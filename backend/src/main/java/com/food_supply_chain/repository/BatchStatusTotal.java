@@ -0,0 +1,12 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.Batch;
+
+/**
+ * Number of batches with one status, summed over all users.
+ */
+public interface BatchStatusTotal {
+    Batch.BatchStatus getStatus();
+
+    Long getCount();
+}
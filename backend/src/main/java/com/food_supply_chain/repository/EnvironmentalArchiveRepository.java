@@ -0,0 +1,133 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.EnvironmentalReading;
+import com.food_supply_chain.util.EnvironmentalBlockCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to the archived environmental readings (see migration V12).
+ * Archiving a day moves its live rows into the day's block with one DELETE ... RETURNING, so readings that arrive
+ * for the day meanwhile are either moved too or stay live, never lost; late readings are merged into the block
+ * on the next run.
+ */
+@Repository
+public class EnvironmentalArchiveRepository {
+    private static final String OLDEST_LIVE_DAY_SQL =
+            "SELECT product_id, CAST(timestamp AS date) AS day FROM product_environmental_conditions " +
+            "WHERE timestamp < ? ORDER BY timestamp LIMIT 1";
+
+    private static final String MOVE_READINGS_SQL =
+            "DELETE FROM product_environmental_conditions WHERE product_id = ? AND timestamp >= ? AND timestamp < ? " +
+            "RETURNING timestamp, temperature, humidity, light_exposure, soil_moisture, soil_ph, air_quality, " +
+            "recorded_by, location, notes";
+
+    private static final String SAVE_BLOCK_SQL =
+            "INSERT INTO environmental_archive_blocks (product_id, day, reading_count, archived_at, data) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (product_id, day) DO UPDATE SET " +
+            "reading_count = EXCLUDED.reading_count, archived_at = EXCLUDED.archived_at, data = EXCLUDED.data";
+
+    private static final RowMapper<EnvironmentalReading> READING_MAPPER = (rs, rowNum) -> new EnvironmentalReading(
+            rs.getTimestamp("timestamp").toLocalDateTime(),
+            rs.getObject("temperature", Double.class),
+            rs.getObject("humidity", Double.class),
+            rs.getObject("light_exposure", Double.class),
+            rs.getObject("soil_moisture", Double.class),
+            rs.getObject("soil_ph", Double.class),
+            rs.getObject("air_quality", Double.class),
+            rs.getString("recorded_by"),
+            rs.getString("location"),
+            rs.getString("notes"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EnvironmentalArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record ProductDay(long productId, LocalDate day) {
+    }
+
+    /**
+     * Product and day of the oldest live reading before the cutoff
+     * @param cutoff Readings before it are due for archiving
+     */
+    public Optional<ProductDay> findOldestLiveDay(LocalDateTime cutoff) {
+        return jdbcTemplate.query(OLDEST_LIVE_DAY_SQL,
+                        (rs, rowNum) -> new ProductDay(rs.getLong("product_id"), rs.getDate("day").toLocalDate()),
+                        Timestamp.valueOf(cutoff))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Moves the live readings of one product and day before the cutoff into the day's block
+     * @param productDay Product and day to archive
+     * @param cutoff Readings at or after it stay live
+     * @return Number of readings moved
+     */
+    @Transactional
+    public int archiveDay(ProductDay productDay, LocalDateTime cutoff) {
+        // Serializes archivers on different nodes, which would otherwise both create the same block
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext('environmental_archive'))");
+
+        LocalDateTime dayStart = productDay.day().atStartOfDay();
+        LocalDateTime dayEnd = productDay.day().plusDays(1).atStartOfDay();
+        List<EnvironmentalReading> moved = jdbcTemplate.query(MOVE_READINGS_SQL, READING_MAPPER,
+                productDay.productId(), Timestamp.valueOf(dayStart),
+                Timestamp.valueOf(dayEnd.isBefore(cutoff) ? dayEnd : cutoff));
+        if (moved.isEmpty()) {
+            return 0;
+        }
+
+        List<EnvironmentalReading> readings = new ArrayList<>(moved);
+        jdbcTemplate.query("SELECT data FROM environmental_archive_blocks WHERE product_id = ? AND day = ?",
+                        (rs, rowNum) -> rs.getBytes("data"), productDay.productId(), Date.valueOf(productDay.day()))
+                .forEach(block -> readings.addAll(EnvironmentalBlockCodec.decode(block)));
+        readings.sort(Comparator.comparing(EnvironmentalReading::timestamp));
+
+        jdbcTemplate.update(SAVE_BLOCK_SQL, productDay.productId(), Date.valueOf(productDay.day()), readings.size(),
+                Timestamp.valueOf(LocalDateTime.now()), EnvironmentalBlockCodec.encode(readings));
+        return moved.size();
+    }
+
+    /**
+     * Archived readings of a product between two times, both bounds optional
+     * @param productId ID of the product
+     * @param from Earliest timestamp, inclusive; null for no lower bound
+     * @param to Latest timestamp, inclusive; null for no upper bound
+     * @return Readings ordered by timestamp
+     */
+    public List<EnvironmentalReading> findReadings(Long productId, LocalDateTime from, LocalDateTime to) {
+        LocalDate fromDay = from != null ? from.toLocalDate() : LocalDate.of(1970, 1, 1);
+        LocalDate toDay = to != null ? to.toLocalDate() : LocalDate.of(9999, 12, 31);
+        List<byte[]> blocks = jdbcTemplate.query(
+                "SELECT data FROM environmental_archive_blocks WHERE product_id = ? AND day BETWEEN ? AND ? " +
+                "ORDER BY day",
+                (rs, rowNum) -> rs.getBytes("data"), productId, Date.valueOf(fromDay), Date.valueOf(toDay));
+
+        List<EnvironmentalReading> readings = new ArrayList<>();
+        for (byte[] block : blocks) {
+            for (EnvironmentalReading reading : EnvironmentalBlockCodec.decode(block)) {
+                if ((from == null || !reading.timestamp().isBefore(from))
+                        && (to == null || !reading.timestamp().isAfter(to))) {
+                    readings.add(reading);
+                }
+            }
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,57 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.EnvironmentalRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EnvironmentalRollupRepository extends JpaRepository<EnvironmentalRollup, EnvironmentalRollup.Key> {
+    /**
+     * Adds the rows of a preceding "readings" CTE (product_id, timestamp, temperature, humidity) to their
+     * minute, hour and day buckets. Readings are grouped first, since one statement may not update a row twice.
+     */
+    String MERGE_READINGS =
+            "INSERT INTO environmental_rollups (product_id, resolution, bucket_start, reading_count, " +
+            "temperature_count, temperature_min, temperature_max, temperature_sum, " +
+            "humidity_count, humidity_min, humidity_max, humidity_sum) " +
+            "SELECT r.product_id, res.resolution, date_trunc(res.unit, r.timestamp), COUNT(*), " +
+            "COUNT(r.temperature), MIN(r.temperature), MAX(r.temperature), SUM(r.temperature), " +
+            "COUNT(r.humidity), MIN(r.humidity), MAX(r.humidity), SUM(r.humidity) " +
+            "FROM readings r " +
+            "CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS res (resolution, unit) " +
+            "GROUP BY r.product_id, res.resolution, res.unit, date_trunc(res.unit, r.timestamp) " +
+            "ON CONFLICT (product_id, resolution, bucket_start) DO UPDATE SET " +
+            "reading_count = environmental_rollups.reading_count + EXCLUDED.reading_count, " +
+            "temperature_count = environmental_rollups.temperature_count + EXCLUDED.temperature_count, " +
+            "temperature_min = LEAST(environmental_rollups.temperature_min, EXCLUDED.temperature_min), " +
+            "temperature_max = GREATEST(environmental_rollups.temperature_max, EXCLUDED.temperature_max), " +
+            "temperature_sum = COALESCE(environmental_rollups.temperature_sum, 0) + COALESCE(EXCLUDED.temperature_sum, 0), " +
+            "humidity_count = environmental_rollups.humidity_count + EXCLUDED.humidity_count, " +
+            "humidity_min = LEAST(environmental_rollups.humidity_min, EXCLUDED.humidity_min), " +
+            "humidity_max = GREATEST(environmental_rollups.humidity_max, EXCLUDED.humidity_max), " +
+            "humidity_sum = COALESCE(environmental_rollups.humidity_sum, 0) + COALESCE(EXCLUDED.humidity_sum, 0)";
+
+    @Modifying
+    @Query(value = "WITH readings AS (SELECT CAST(:productId AS bigint) AS product_id, " +
+            "CAST(:timestamp AS timestamp) AS timestamp, CAST(:temperature AS float8) AS temperature, " +
+            "CAST(:humidity AS float8) AS humidity) " + MERGE_READINGS,
+            nativeQuery = true)
+    void addReading(
+            @Param("productId") Long productId,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("temperature") Double temperature,
+            @Param("humidity") Double humidity);
+
+    List<EnvironmentalRollup> findByProductIdAndResolutionAndBucketStartBetweenOrderByBucketStart(
+            Long productId, EnvironmentalRollup.Resolution resolution, LocalDateTime start, LocalDateTime end);
+
+    @Modifying
+    @Query("DELETE FROM EnvironmentalRollup r WHERE r.resolution = :resolution AND r.bucketStart < :before")
+    int deleteOlderThan(
+            @Param("resolution") EnvironmentalRollup.Resolution resolution,
+            @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,92 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.Notification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC writer used by the notification dispatcher to insert notifications in batches.
+ * Notifications that cannot be inserted are parked in notification_dead_letters the same way.
+ */
+@Repository
+public class NotificationBulkRepository {
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, title, message, read, notification_type, " +
+            "related_entity_id, related_entity_type, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INCREMENT_COUNTER_SQL =
+            "INSERT INTO notification_counters (user_id, unread_count) VALUES (?, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET unread_count = notification_counters.unread_count + EXCLUDED.unread_count";
+
+    private static final String DEAD_LETTER_SQL =
+            "INSERT INTO notification_dead_letters (user_id, title, message, read, notification_type, " +
+            "related_entity_id, related_entity_type, created_at, error, failed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NotificationBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the given notifications and bumps the unread counters of their users in their own
+     * transaction, since callers run after the originating transaction has already committed
+     * @param notifications Unsaved notifications with user and createdAt set
+     * @param unreadDeltas Number of unread notifications per user id among the given notifications
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insertAll(List<Notification> notifications, Map<Long, Long> unreadDeltas) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, notifications, BATCH_SIZE, NotificationBulkRepository::bind);
+
+        jdbcTemplate.batchUpdate(INCREMENT_COUNTER_SQL, unreadDeltas.entrySet(), BATCH_SIZE, (ps, delta) -> {
+            ps.setLong(1, delta.getKey());
+            ps.setLong(2, delta.getValue());
+        });
+    }
+
+    /**
+     * Parks notifications that could not be inserted, in their own transaction
+     * @param notifications Notifications of one failed write
+     * @param error Description of the last failure
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void deadLetterAll(List<Notification> notifications, String error) {
+        Timestamp failedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(DEAD_LETTER_SQL, notifications, BATCH_SIZE, (ps, notification) -> {
+            bind(ps, notification);
+            ps.setString(9, error);
+            ps.setTimestamp(10, failedAt);
+        });
+    }
+
+    // Binds the notification columns shared by both tables
+    private static void bind(PreparedStatement ps, Notification notification) throws SQLException {
+        ps.setLong(1, notification.getUser().getId());
+        ps.setString(2, notification.getTitle());
+        ps.setString(3, notification.getMessage());
+        ps.setBoolean(4, notification.isRead());
+        ps.setString(5, notification.getNotificationType() != null ? notification.getNotificationType().name() : null);
+        ps.setObject(6, notification.getRelatedEntityId(), Types.BIGINT);
+        ps.setString(7, notification.getRelatedEntityType());
+        ps.setTimestamp(8, Timestamp.valueOf(notification.getCreatedAt()));
+    }
+}
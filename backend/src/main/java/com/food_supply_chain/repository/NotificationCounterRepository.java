@@ -0,0 +1,21 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+    String INCREMENT_SQL = "INSERT INTO notification_counters (user_id, unread_count) VALUES (:userId, GREATEST(:delta, 0)) " +
+            "ON CONFLICT (user_id) DO UPDATE SET unread_count = GREATEST(notification_counters.unread_count + :delta, 0)";
+
+    @Modifying
+    @Query(value = INCREMENT_SQL, nativeQuery = true)
+    void increment(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "INSERT INTO notification_counters (user_id, unread_count) VALUES (:userId, 0) " +
+            "ON CONFLICT (user_id) DO UPDATE SET unread_count = 0", nativeQuery = true)
+    void reset(@Param("userId") Long userId);
+}
@@ -0,0 +1,7 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.ProductConditionThresholds;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductConditionThresholdsRepository extends JpaRepository<ProductConditionThresholds, Long> {
+}
@@ -14,6 +14,9 @@ public interface ProductEnvironmentalConditionRepository extends JpaRepository<P
 
     List<ProductEnvironmentalCondition> findByProductOrderByTimestampDesc(Product product);
 
+    List<ProductEnvironmentalCondition> findByProductIdAndTimestampBetweenOrderByTimestamp(
+            Long productId, LocalDateTime start, LocalDateTime end);
+
     @Query("SELECT e FROM ProductEnvironmentalCondition e WHERE e.timestamp BETWEEN :startDate AND :endDate")
     List<ProductEnvironmentalCondition> findByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
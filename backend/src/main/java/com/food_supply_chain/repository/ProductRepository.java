@@ -4,38 +4,60 @@ import com.food_supply_chain.model.Product;
 import com.food_supply_chain.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    @EntityGraph(Product.DTO_GRAPH)
     List<Product> findByCreatedBy(User createdBy);
 
+    @EntityGraph(Product.DTO_GRAPH)
     Page<Product> findByCreatedBy(User createdBy, Pageable pageable);
 
+    @EntityGraph(Product.DTO_GRAPH)
     Optional<Product> findByBatchCode(String batchCode);
 
-    @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
-    List<Product> searchProducts(@Param("keyword") String keyword);
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
+    String FULL_TEXT_MATCH = "p.search_vector @@ to_tsquery('simple', :query)";
+    String FULL_TEXT_RANK = "ts_rank(p.search_vector, to_tsquery('simple', :query)) DESC, p.id";
+
+    /**
+     * Full-text search over name and description using the GIN-indexed search_vector column
+     * @param query PostgreSQL tsquery in the 'simple' configuration, e.g. "organ:* & tom:*"
+     * @param pageable Page to return; must be unsorted, results are ordered by relevance
+     */
+    @Query(value = "SELECT p.* FROM products p WHERE " + FULL_TEXT_MATCH + " ORDER BY " + FULL_TEXT_RANK,
+            nativeQuery = true)
+    List<Product> searchProducts(@Param("query") String query, Pageable pageable);
+
+    @EntityGraph(Product.DTO_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.expirationDate BETWEEN :startDate AND :endDate")
     List<Product> findByExpirationDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    @EntityGraph(Product.DTO_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.productType = :type")
     List<Product> findByProductType(@Param("type") String productType);
 
+    @EntityGraph(Product.DTO_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.organic = true")
     List<Product> findOrganicProducts();
 
-    @Query("SELECT p FROM Product p WHERE p.createdBy = :farmer AND " +
-            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Product> findByCreatedByAndSearch(@Param("farmer") User farmer, @Param("search") String search, Pageable pageable);
+    @Query(value = "SELECT p.* FROM products p WHERE p.farmer_id = :farmerId AND " + FULL_TEXT_MATCH +
+            " ORDER BY " + FULL_TEXT_RANK,
+            countQuery = "SELECT COUNT(*) FROM products p WHERE p.farmer_id = :farmerId AND " + FULL_TEXT_MATCH,
+            nativeQuery = true)
+    Page<Product> findByCreatedByAndSearch(@Param("farmerId") Long farmerId, @Param("query") String query, Pageable pageable);
 
+    @EntityGraph(Product.DTO_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.certification = :certification")
     List<Product> findByCertification(@Param("certification") String certification);
 }
\ No newline at end of file
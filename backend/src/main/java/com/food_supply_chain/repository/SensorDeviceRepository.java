@@ -0,0 +1,10 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.SensorDevice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SensorDeviceRepository extends JpaRepository<SensorDevice, String> {
+    List<SensorDevice> findByOwnerIdOrderByCreatedAt(Long ownerId);
+}
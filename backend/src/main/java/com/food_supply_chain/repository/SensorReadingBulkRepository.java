@@ -0,0 +1,105 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.SensorReading;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Plain JDBC writer for sensor readings.
+ * Each chunk is sent as one INSERT ... SELECT FROM unnest(arrays), so thousands of rows cost a single
+ * statement and round trip instead of one per row. The same statement adds the chunk to the product's
+ * environmental rollups, so the aggregates never disagree with the stored readings.
+ * Chunks that cannot be inserted are parked in sensor_reading_dead_letters the same way.
+ */
+@Repository
+public class SensorReadingBulkRepository {
+    private static final String INSERT_SQL =
+            "WITH readings AS (" +
+            "SELECT * FROM unnest(?::bigint[], ?::timestamp[], ?::float8[], ?::float8[], ?::varchar[], ?::varchar[]) " +
+            "AS r (product_id, timestamp, temperature, humidity, recorded_by, location)), " +
+            "inserted AS (" +
+            "INSERT INTO product_environmental_conditions (product_id, timestamp, temperature, humidity, " +
+            "recorded_by, location) " +
+            "SELECT product_id, timestamp, temperature, humidity, recorded_by, location FROM readings) " +
+            EnvironmentalRollupRepository.MERGE_READINGS;
+
+    private static final String DEAD_LETTER_SQL =
+            "INSERT INTO sensor_reading_dead_letters (error, failed_at, product_id, timestamp, temperature, humidity, " +
+            "recorded_by, location) " +
+            "SELECT ?::text, ?::timestamp, r.* FROM unnest(?::bigint[], ?::timestamp[], ?::float8[], ?::float8[], ?::varchar[], " +
+            "?::varchar[]) AS r (product_id, timestamp, temperature, humidity, recorded_by, location)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SensorReadingBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the given readings as environmental conditions of their products and adds them to their rollups
+     * @param readings Readings of existing products
+     * @return Number of readings inserted
+     */
+    public int insertAll(List<SensorReading> readings) {
+        if (readings.isEmpty()) {
+            return 0;
+        }
+
+        // The update count is that of the rollup merge, so report the readings instead
+        update(INSERT_SQL, readings);
+        return readings.size();
+    }
+
+    /**
+     * Parks readings that could not be inserted, for later replay
+     * @param readings Readings of one failed chunk
+     * @param error Description of the last failure
+     */
+    public void deadLetterAll(List<SensorReading> readings, String error) {
+        if (!readings.isEmpty()) {
+            update(DEAD_LETTER_SQL, readings, error, Timestamp.valueOf(LocalDateTime.now()));
+        }
+    }
+
+    // Binds the leading parameters, then the readings as one array per column
+    private void update(String sql, List<SensorReading> readings, Object... leading) {
+        int size = readings.size();
+        Long[] productIds = new Long[size];
+        Timestamp[] timestamps = new Timestamp[size];
+        Double[] temperatures = new Double[size];
+        Double[] humidities = new Double[size];
+        String[] recordedBy = new String[size];
+        String[] locations = new String[size];
+        for (int i = 0; i < size; i++) {
+            SensorReading reading = readings.get(i);
+            productIds[i] = reading.productId();
+            timestamps[i] = Timestamp.valueOf(reading.timestamp());
+            temperatures[i] = reading.temperature();
+            humidities[i] = reading.humidity();
+            recordedBy[i] = reading.recordedBy();
+            locations[i] = reading.location();
+        }
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            int index = 1;
+            for (Object parameter : leading) {
+                ps.setObject(index++, parameter);
+            }
+            ps.setArray(index++, connection.createArrayOf("bigint", productIds));
+            ps.setArray(index++, connection.createArrayOf("timestamp", timestamps));
+            ps.setArray(index++, connection.createArrayOf("float8", temperatures));
+            ps.setArray(index++, connection.createArrayOf("float8", humidities));
+            ps.setArray(index++, connection.createArrayOf("varchar", recordedBy));
+            ps.setArray(index, connection.createArrayOf("varchar", locations));
+            return ps;
+        });
+    }
+}
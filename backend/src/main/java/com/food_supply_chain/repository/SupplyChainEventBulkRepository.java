@@ -0,0 +1,84 @@
+package com.food_supply_chain.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.food_supply_chain.model.SupplyChainEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC writer for bulk event ingestion.
+ * The entity uses IDENTITY ids, which stops Hibernate from batching inserts, so ids are
+ * reserved from the column's sequence up front and rows are written with JDBC batching.
+ */
+@Repository
+public class SupplyChainEventBulkRepository {
+    private static final int BATCH_SIZE = 500;
+
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('supply_chain_events', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO supply_chain_events (id, event_type, batch_id, initiated_by_id, received_by_id, timestamp, " +
+            "location, geo_coordinates, temperature, humidity, notes, blockchain_tx_hash, additional_data) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter additionalDataWriter;
+
+    @Autowired
+    public SupplyChainEventBulkRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.additionalDataWriter = objectMapper.writerFor(new TypeReference<Map<String, String>>() {});
+    }
+
+    /**
+     * Inserts the given events and assigns their generated ids
+     * @param events Events to insert, with timestamp, batch and initiator already set
+     */
+    public void insertAll(List<SupplyChainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).setId(ids.get(i));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, BATCH_SIZE, (ps, event) -> {
+            ps.setLong(1, event.getId());
+            ps.setString(2, event.getEventType().name());
+            ps.setObject(3, event.getBatch() != null ? event.getBatch().getId() : null, Types.BIGINT);
+            ps.setLong(4, event.getInitiatedBy().getId());
+            ps.setObject(5, event.getReceivedBy() != null ? event.getReceivedBy().getId() : null, Types.BIGINT);
+            ps.setTimestamp(6, Timestamp.valueOf(event.getTimestamp()));
+            ps.setString(7, event.getLocation());
+            ps.setString(8, event.getGeoCoordinates());
+            ps.setObject(9, event.getTemperature(), Types.DOUBLE);
+            ps.setObject(10, event.getHumidity(), Types.DOUBLE);
+            ps.setString(11, event.getNotes());
+            ps.setString(12, event.getBlockchainTxHash());
+            ps.setString(13, toJson(event.getAdditionalData()));
+        });
+    }
+
+    private String toJson(Map<String, String> additionalData) {
+        if (additionalData == null) {
+            return null;
+        }
+        try {
+            return additionalDataWriter.writeValueAsString(additionalData);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize additional data", e);
+        }
+    }
+}
@@ -3,44 +3,104 @@ package com.food_supply_chain.repository;
 import com.food_supply_chain.model.Batch;
 import com.food_supply_chain.model.SupplyChainEvent;
 import com.food_supply_chain.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface SupplyChainEventRepository extends JpaRepository<SupplyChainEvent, Long> {
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     List<SupplyChainEvent> findByBatch(Batch batch);
 
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     List<SupplyChainEvent> findByBatchOrderByTimestampDesc(Batch batch);
 
+    // Keyset-paginated variants, ordered by (timestamp, id) so that deep pages cost the same as the first one
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
+    Window<SupplyChainEvent> findByBatchOrderByTimestampDescIdDesc(Batch batch, ScrollPosition position, Limit limit);
+
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
+    Window<SupplyChainEvent> findByBatchProductIdOrderByTimestampDescIdDesc(
+            Long productId, ScrollPosition position, Limit limit);
+
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
+    Window<SupplyChainEvent> findByTimestampBetweenOrderByTimestampDescIdDesc(
+            LocalDateTime startDate, LocalDateTime endDate, ScrollPosition position, Limit limit);
+
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     List<SupplyChainEvent> findByEventType(SupplyChainEvent.EventType eventType);
 
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     List<SupplyChainEvent> findByInitiatedBy(User user);
 
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     List<SupplyChainEvent> findByReceivedBy(User user);
 
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     @Query("SELECT e FROM SupplyChainEvent e WHERE e.timestamp BETWEEN :startDate AND :endDate")
     List<SupplyChainEvent> findByDateRange(
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * Streams the events of a date range, oldest first, as unmanaged rows read through a server-side cursor.
+     * Must be consumed inside a transaction, otherwise the driver ignores the fetch size and buffers everything.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e.id AS id, e.eventType AS eventType, b.id AS batchId, b.batchCode AS batchCode, " +
+            "ib.username AS initiatedByUsername, rb.username AS receivedByUsername, e.timestamp AS timestamp, " +
+            "e.location AS location, e.geoCoordinates AS geoCoordinates, e.temperature AS temperature, " +
+            "e.humidity AS humidity, e.notes AS notes, e.blockchainTxHash AS blockchainTxHash, " +
+            "e.additionalData AS additionalData " +
+            "FROM SupplyChainEvent e LEFT JOIN e.batch b LEFT JOIN e.initiatedBy ib LEFT JOIN e.receivedBy rb " +
+            "WHERE e.timestamp BETWEEN :startDate AND :endDate ORDER BY e.timestamp, e.id")
+    Stream<SupplyChainEventRow> streamByDateRange(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     @Query("SELECT e FROM SupplyChainEvent e WHERE e.batch = :batch AND e.eventType = :eventType")
     List<SupplyChainEvent> findByBatchAndEventType(
             @Param("batch") Batch batch,
             @Param("eventType") SupplyChainEvent.EventType eventType);
 
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     @Query("SELECT e FROM SupplyChainEvent e WHERE " +
             "e.batch.product.id = :productId ORDER BY e.timestamp DESC")
     List<SupplyChainEvent> findByProductId(@Param("productId") Long productId);
 
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     @Query("SELECT e FROM SupplyChainEvent e WHERE " +
             "e.initiatedBy.id = :userId OR e.receivedBy.id = :userId")
     Page<SupplyChainEvent> findByUserInvolved(@Param("userId") Long userId, Pageable pageable);
 
+    /**
+     * Events whose additional data contains every key and value of the filter, newest first.
+     * Answered from the GIN index on additional_data.
+     * @param filter JSON object, e.g. {"sensorId":"T-17"}
+     */
+    @Query(value = "SELECT * FROM supply_chain_events e WHERE e.additional_data @> CAST(:filter AS jsonb) " +
+            "ORDER BY e.timestamp DESC, e.id DESC",
+            countQuery = "SELECT COUNT(*) FROM supply_chain_events e WHERE e.additional_data @> CAST(:filter AS jsonb)",
+            nativeQuery = true)
+    Page<SupplyChainEvent> findByAdditionalDataContaining(@Param("filter") String filter, Pageable pageable);
+
+    @EntityGraph(SupplyChainEvent.DTO_GRAPH)
     @Query("SELECT e FROM SupplyChainEvent e WHERE " +
             "e.location LIKE %:location% OR e.geoCoordinates LIKE %:coordinates%")
     List<SupplyChainEvent> findByLocation(
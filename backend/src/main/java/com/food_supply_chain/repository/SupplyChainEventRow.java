@@ -0,0 +1,27 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.SupplyChainEvent;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Flat, unmanaged projection of a supply chain event with the batch and user columns its DTO needs,
+ * used where events are read in bulk and loading entities would be wasted work.
+ */
+public interface SupplyChainEventRow {
+    Long getId();
+    SupplyChainEvent.EventType getEventType();
+    Long getBatchId();
+    String getBatchCode();
+    String getInitiatedByUsername();
+    String getReceivedByUsername();
+    LocalDateTime getTimestamp();
+    String getLocation();
+    String getGeoCoordinates();
+    Double getTemperature();
+    Double getHumidity();
+    String getNotes();
+    String getBlockchainTxHash();
+    Map<String, String> getAdditionalData();
+}
@@ -0,0 +1,55 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.Batch;
+import com.food_supply_chain.model.SupplyChainEvent;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Flat projection of a batch, its product and one of its supply chain events, as returned by
+ * {@link BatchRepository#findTrackingRows(String)}. The event columns are null when the batch has no events.
+ */
+public interface TrackingRow {
+    Long getBatchId();
+    String getBatchCode();
+    Integer getQuantity();
+    LocalDate getProductionDate();
+    LocalDate getBatchExpirationDate();
+    Batch.BatchStatus getStatus();
+    String getBatchQrCodeUrl();
+    LocalDateTime getBatchCreatedAt();
+    String getBatchCreatedBy();
+    String getBatchNotes();
+
+    Long getProductId();
+    String getProductBatchCode();
+    String getProductName();
+    String getDescription();
+    Double getPrice();
+    Integer getStock();
+    String getProductCreatedBy();
+    LocalDateTime getProductCreatedAt();
+    LocalDate getHarvestDate();
+    LocalDate getProductExpirationDate();
+    String getProductType();
+    Boolean getOrganic();
+    String getCertification();
+    String getCultivationMethod();
+    String getProductQrCodeUrl();
+    String getImageUrl();
+
+    Long getEventId();
+    SupplyChainEvent.EventType getEventType();
+    String getInitiatedBy();
+    String getReceivedBy();
+    LocalDateTime getTimestamp();
+    String getLocation();
+    String getGeoCoordinates();
+    Double getTemperature();
+    Double getHumidity();
+    String getEventNotes();
+    String getBlockchainTxHash();
+    Map<String, String> getAdditionalData();
+}
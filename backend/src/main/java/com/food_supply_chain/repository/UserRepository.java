@@ -4,15 +4,19 @@ import com.food_supply_chain.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    List<User> findByUsernameIn(Collection<String> usernames);
+
     Optional<User> findByEmail(String email);
 
     Boolean existsByUsername(String username);
@@ -36,4 +40,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
             "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(u.companyName) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<User> findByRoleAndSearch(@Param("role") User.Role role, @Param("search") String search, Pageable pageable);
+
+    /**
+     * Token version of an enabled user; empty if the user is disabled or no longer exists
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id AND u.enabled = true")
+    Optional<Long> findActiveTokenVersion(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    void incrementTokenVersion(@Param("id") Long id);
 }
\ No newline at end of file
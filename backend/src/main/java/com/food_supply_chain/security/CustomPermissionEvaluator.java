@@ -1,63 +1,65 @@
 package com.food_supply_chain.security;
 
-import com.food_supply_chain.model.User;
-import com.food_supply_chain.repository.UserRepository;
+import com.food_supply_chain.service.CurrentUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
-import java.util.Optional;
 
+/**
+ * Checks permissions against the {@link Permission} bitset carried by the request's {@link UserPrincipal},
+ * so a check is a bitwise AND without database or collection access.
+ */
 @Component
 public class CustomPermissionEvaluator implements PermissionEvaluator {
 
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
 
     @Autowired
-    public CustomPermissionEvaluator(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomPermissionEvaluator(CurrentUserService currentUserService) {
+        this.currentUserService = currentUserService;
     }
 
     @Override
     public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
-        if (authentication == null || targetDomainObject == null || !(permission instanceof String)) {
+        if (authentication == null || targetDomainObject == null) {
             return false;
         }
 
-        String username = authentication.getName();
-        Optional<User> userOpt = userRepository.findByUsername(username);
-
-        if (userOpt.isEmpty()) {
-            return false;
-        }
-
-        User user = userOpt.get();
-        String permissionToCheck = (String) permission;
-
-        return user.hasPermission(permissionToCheck);
+        return hasPermission(resolvePrincipal(authentication), permission);
     }
 
     @Override
     public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
-        if (authentication == null || targetType == null || !(permission instanceof String)) {
+        if (authentication == null || targetType == null) {
             return false;
         }
 
-        String username = authentication.getName();
-        Optional<User> userOpt = userRepository.findByUsername(username);
+        // Add additional logic here if you need to check permissions for specific domain objects
+        // For example, check if a user has permission to edit a specific product based on targetId
+
+        return hasPermission(resolvePrincipal(authentication), permission);
+    }
 
-        if (userOpt.isEmpty()) {
+    private static boolean hasPermission(UserPrincipal principal, Object permission) {
+        if (principal == null) {
             return false;
         }
+        if (permission instanceof Permission known) {
+            return principal.hasPermission(known);
+        }
+        if (permission instanceof String name) {
+            return principal.hasPermission(name);
+        }
+        return false;
+    }
 
-        User user = userOpt.get();
-        String permissionToCheck = (String) permission;
-
-        // Add additional logic here if you need to check permissions for specific domain objects
-        // For example, check if a user has permission to edit a specific product based on targetId
-
-        return user.hasPermission(permissionToCheck);
+    private UserPrincipal resolvePrincipal(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+        return currentUserService.loadPrincipal(authentication.getName()).orElse(null);
     }
-}
\ No newline at end of file
+}
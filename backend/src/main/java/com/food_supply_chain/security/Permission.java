@@ -0,0 +1,103 @@
+package com.food_supply_chain.security;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Fixed set of permissions, each mapped to one bit of a long so that a user's permissions can be
+ * carried as a single number and checked with a bitwise AND.
+ * Bits follow declaration order and are stored in issued tokens, so new permissions must only be appended.
+ */
+public enum Permission {
+    // Common
+    VIEW_OWN_PROFILE,
+    EDIT_OWN_PROFILE,
+
+    // Farmer
+    CREATE_PRODUCT,
+    EDIT_OWN_PRODUCT,
+    DELETE_OWN_PRODUCT,
+    VIEW_OWN_ANALYTICS,
+
+    // Distributor
+    CREATE_SHIPMENT,
+    EDIT_OWN_SHIPMENT,
+    VIEW_PRODUCT_DETAILS,
+    LOG_TRANSPORT_CONDITIONS,
+
+    // Retailer
+    RECEIVE_PRODUCT,
+    SELL_PRODUCT,
+    VIEW_PRODUCT_HISTORY,
+    VIEW_OWN_INVENTORY,
+
+    // Consumer
+    VIEW_PRODUCT_JOURNEY,
+    RATE_PRODUCT,
+
+    // Admin
+    MANAGE_USERS,
+    VIEW_ALL_PRODUCTS,
+    EDIT_ANY_PRODUCT,
+    VIEW_SYSTEM_ANALYTICS,
+    MANAGE_SYSTEM_SETTINGS;
+
+    private static final Permission[] VALUES = values();
+    private static final Map<String, Permission> BY_NAME = new HashMap<>();
+
+    static {
+        if (VALUES.length > Long.SIZE) {
+            throw new IllegalStateException("Permission bitset cannot hold more than " + Long.SIZE + " permissions");
+        }
+        for (Permission permission : VALUES) {
+            BY_NAME.put(permission.name(), permission);
+        }
+    }
+
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Looks up a permission by name without throwing
+     * @param name Permission name as stored in user_permissions
+     * @return The permission, or null if the name is unknown
+     */
+    public static Permission fromName(String name) {
+        return name != null ? BY_NAME.get(name) : null;
+    }
+
+    /**
+     * Compiles permission names into a bitset; unknown names are ignored
+     * @param names Permission names, e.g. User.getPermissions()
+     * @return Bitset with one bit set per known permission
+     */
+    public static long encode(Collection<String> names) {
+        long bits = 0;
+        for (String name : names) {
+            Permission permission = fromName(name);
+            if (permission != null) {
+                bits |= permission.mask();
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Iterates over the permissions contained in a bitset
+     * @param bits Bitset produced by {@link #encode(Collection)}
+     * @param action Called once per permission, in declaration order
+     */
+    public static void forEach(long bits, Consumer<Permission> action) {
+        long remaining = bits;
+        while (remaining != 0) {
+            int ordinal = Long.numberOfTrailingZeros(remaining);
+            if (ordinal < VALUES.length) {
+                action.accept(VALUES[ordinal]);
+            }
+            remaining &= remaining - 1;
+        }
+    }
+}
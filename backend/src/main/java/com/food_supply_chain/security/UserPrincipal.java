@@ -0,0 +1,63 @@
+package com.food_supply_chain.security;
+
+import com.food_supply_chain.model.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the authenticated user, carried as the principal of the request's Authentication
+ * so that services and permission checks do not have to look the user up again.
+ * Normally built from the identity claims of the request's JWT (see JwtService.getPrincipal).
+ * Permissions are held as a {@link Permission} bitset, so permission checks are a single bitwise AND.
+ * Authentication.getName() still returns the username.
+ */
+public record UserPrincipal(
+        Long id,
+        String username,
+        User.Role role,
+        long permissions,
+        boolean enabled,
+        long tokenVersion) implements AuthenticatedPrincipal, Serializable {
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getRole(),
+                Permission.encode(user.getPermissions()), user.isEnabled(),
+                user.getTokenVersion() != null ? user.getTokenVersion() : 0L);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public boolean hasRole(User.Role role) {
+        return this.role == role;
+    }
+
+    public boolean hasPermission(Permission permission) {
+        return (permissions & permission.mask()) != 0;
+    }
+
+    /**
+     * @param permission Permission name; unknown names are never granted
+     */
+    public boolean hasPermission(String permission) {
+        Permission known = Permission.fromName(permission);
+        return known != null && hasPermission(known);
+    }
+
+    /**
+     * Role (with the ROLE_ prefix) and permissions as Spring Security authorities, as in UserService.loadUserByUsername
+     */
+    public List<GrantedAuthority> authorities() {
+        List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(permissions) + 1);
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+        Permission.forEach(permissions, permission -> authorities.add(new SimpleGrantedAuthority(permission.name())));
+        return authorities;
+    }
+}
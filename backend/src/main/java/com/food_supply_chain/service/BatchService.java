@@ -9,18 +9,22 @@ import com.food_supply_chain.model.Product;
 import com.food_supply_chain.model.User;
 import com.food_supply_chain.model.dto.BatchDTO;
 import com.food_supply_chain.model.dto.BatchEventDTO;
+import com.food_supply_chain.model.dto.CursorPageDTO;
+import com.food_supply_chain.model.dto.DtoView;
 import com.food_supply_chain.repository.BatchEventRepository;
 import com.food_supply_chain.repository.BatchRepository;
 import com.food_supply_chain.repository.ProductRepository;
-import com.food_supply_chain.repository.UserRepository;
+import com.food_supply_chain.security.UserPrincipal;
+import com.food_supply_chain.util.CursorCodec;
 import com.food_supply_chain.util.QRCodeGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,35 +33,40 @@ public class BatchService {
     private final BatchRepository batchRepository;
     private final BatchEventRepository batchEventRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final BatchMapper batchMapper;
     private final QRCodeGenerator qrCodeGenerator;
+    private final PublicTrackingCache publicTrackingCache;
+    private final BatchStatisticsService batchStatisticsService;
 
     @Autowired
     public BatchService(
             BatchRepository batchRepository,
             BatchEventRepository batchEventRepository,
             ProductRepository productRepository,
-            UserRepository userRepository,
+            CurrentUserService currentUserService,
             BatchMapper batchMapper,
-            QRCodeGenerator qrCodeGenerator) {
+            QRCodeGenerator qrCodeGenerator,
+            PublicTrackingCache publicTrackingCache,
+            BatchStatisticsService batchStatisticsService) {
         this.batchRepository = batchRepository;
         this.batchEventRepository = batchEventRepository;
         this.productRepository = productRepository;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
         this.batchMapper = batchMapper;
         this.qrCodeGenerator = qrCodeGenerator;
+        this.publicTrackingCache = publicTrackingCache;
+        this.batchStatisticsService = batchStatisticsService;
     }
 
     @Transactional
     public BatchDTO createBatch(BatchDTO batchDTO) {
         // Get the current user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UserPrincipal principal = currentUserService.getPrincipal();
+        String username = principal.username();
 
         // Check if user is a farmer
-        if (user.getRole() != User.Role.FARMER && user.getRole() != User.Role.ADMIN) {
+        if (!principal.hasRole(User.Role.FARMER) && !principal.hasRole(User.Role.ADMIN)) {
             throw new AccessDeniedException("Only farmers can create batches");
         }
 
@@ -66,10 +75,13 @@ public class BatchService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
         // Check if the user is the creator of the product
-        if (!product.getCreatedBy().getUsername().equals(username) && user.getRole() != User.Role.ADMIN) {
+        if (!product.getCreatedBy().getId().equals(principal.id()) && !principal.hasRole(User.Role.ADMIN)) {
             throw new AccessDeniedException("You can only create batches for your own products");
         }
 
+        // The initial event records the user's location, so the full entity is needed here
+        User user = currentUserService.getCurrentUser();
+
         // Generate batch code if not provided
         String batchCode = batchDTO.getBatchCode();
         if (batchCode == null || batchCode.isEmpty()) {
@@ -98,6 +110,7 @@ public class BatchService {
 
         // Save the batch
         Batch savedBatch = batchRepository.save(batch);
+        batchStatisticsService.recordCreated(savedBatch);
 
         // Create the initial CREATED event
         BatchEvent event = new BatchEvent();
@@ -131,52 +144,60 @@ public class BatchService {
     }
 
     @Transactional(readOnly = true)
-    public List<BatchDTO> getBatchesByProduct(Long productId) {
+    public List<BatchDTO> getBatchesByProduct(Long productId, DtoView view) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        return batchRepository.findByProduct(product)
-                .stream()
-                .map(batchMapper::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(batchRepository.findByProduct(product), view);
     }
 
     @Transactional(readOnly = true)
-    public List<BatchDTO> getBatchesByCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public List<BatchDTO> getBatchesByCurrentUser(DtoView view) {
+        User user = currentUserService.getCurrentUserReference();
 
-        return batchRepository.findByCreatedBy(user)
-                .stream()
-                .map(batchMapper::toDTO)
-                .collect(Collectors.toList());
+        return toDTOs(batchRepository.findByCreatedBy(user), view);
     }
 
     @Transactional(readOnly = true)
-    public List<BatchDTO> getBatchesByStatus(String status) {
+    public List<BatchDTO> getBatchesByStatus(String status, DtoView view) {
+        Batch.BatchStatus batchStatus;
         try {
-            Batch.BatchStatus batchStatus = Batch.BatchStatus.valueOf(status.toUpperCase());
+            batchStatus = Batch.BatchStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid batch status: " + status);
+        }
+
+        return toDTOs(batchRepository.findByStatus(batchStatus), view);
+    }
 
-            return batchRepository.findByStatus(batchStatus)
-                    .stream()
-                    .map(batchMapper::toDTO)
-                    .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BatchDTO> getBatchesByStatus(String status, String cursor, int size, DtoView view) {
+        Batch.BatchStatus batchStatus;
+        try {
+            batchStatus = Batch.BatchStatus.valueOf(status.toUpperCase());
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid batch status: " + status);
         }
+
+        Window<Batch> window = batchRepository.findByStatusOrderByCreatedAtDescIdDesc(batchStatus,
+                CursorCodec.decode(cursor, "createdAt", LocalDateTime::parse), CursorCodec.limit(size));
+        fetchChildren(window.getContent(), view);
+        return CursorCodec.toPage(
+                window,
+                batch -> batchMapper.toDTO(batch, view),
+                batch -> CursorCodec.encode(batch.getCreatedAt(), batch.getId()));
     }
 
     @Transactional
     public BatchDTO updateBatchStatus(Long id, String newStatus, BatchEventDTO eventDTO) {
-        Batch batch = batchRepository.findById(id)
+        // Locked, so a concurrent change of this batch cannot read the same old status for the counters
+        Batch batch = batchRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Batch not found"));
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserService.getCurrentUserReference();
 
         // Validate status transition
+        Batch.BatchStatus oldStatus = batch.getStatus();
         try {
             Batch.BatchStatus status = Batch.BatchStatus.valueOf(newStatus.toUpperCase());
             batch.setStatus(status);
@@ -186,6 +207,7 @@ public class BatchService {
 
         // Save the batch with new status
         Batch updatedBatch = batchRepository.save(batch);
+        batchStatisticsService.recordStatusChange(updatedBatch, oldStatus);
 
         // Create a batch event for the status change
         BatchEvent event = new BatchEvent();
@@ -198,6 +220,7 @@ public class BatchService {
         event.setNotes(eventDTO.getNotes());
 
         batchEventRepository.save(event);
+        publicTrackingCache.evict(updatedBatch.getBatchCode());
 
         // Refresh batch to include the new event
         updatedBatch = batchRepository.findById(updatedBatch.getId())
@@ -211,15 +234,14 @@ public class BatchService {
         Batch batch = batchRepository.findById(batchId)
                 .orElseThrow(() -> new ResourceNotFoundException("Batch not found"));
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserService.getCurrentUserReference();
 
         // Create the batch event
         BatchEvent event = batchMapper.toEventEntity(eventDTO, batch);
         event.setRecordedBy(user);
 
         batchEventRepository.save(event);
+        publicTrackingCache.evict(batch.getBatchCode());
 
         // Refresh batch to include the new event
         batch = batchRepository.findById(batchId)
@@ -240,12 +262,38 @@ public class BatchService {
     }
 
     @Transactional(readOnly = true)
-    public List<BatchDTO> getExpiringBatches(int days) {
+    public List<BatchDTO> getExpiringBatches(int days, DtoView view) {
         LocalDate expirationDate = LocalDate.now().plusDays(days);
 
-        return batchRepository.findExpiringBatches(expirationDate)
-                .stream()
-                .map(batchMapper::toDTO)
+        return toDTOs(batchRepository.findExpiringBatches(expirationDate), view);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BatchDTO> getExpiringBatches(int days, String cursor, int size, DtoView view) {
+        LocalDate expirationDate = LocalDate.now().plusDays(days);
+
+        Window<Batch> window = batchRepository.findByExpirationDateLessThanEqualOrderByExpirationDateAscIdAsc(
+                expirationDate, CursorCodec.decode(cursor, "expirationDate", LocalDate::parse), CursorCodec.limit(size));
+        fetchChildren(window.getContent(), view);
+        return CursorCodec.toPage(
+                window,
+                batch -> batchMapper.toDTO(batch, view),
+                batch -> CursorCodec.encode(batch.getExpirationDate(), batch.getId()));
+    }
+
+    private List<BatchDTO> toDTOs(List<Batch> batches, DtoView view) {
+        fetchChildren(batches, view);
+        return batches.stream()
+                .map(batch -> batchMapper.toDTO(batch, view))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Loads the events of all batches up front for the DETAIL view, instead of one lazy load per batch
+     */
+    private void fetchChildren(List<Batch> batches, DtoView view) {
+        if (view == DtoView.DETAIL && !batches.isEmpty()) {
+            batchRepository.fetchEvents(batches);
+        }
+    }
 }
\ No newline at end of file
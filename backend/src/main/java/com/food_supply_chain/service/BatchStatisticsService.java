@@ -0,0 +1,110 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.model.Batch;
+import com.food_supply_chain.model.BatchStatusCounter;
+import com.food_supply_chain.model.dto.BatchStatsDTO;
+import com.food_supply_chain.repository.BatchStatusCounterRepository;
+import com.food_supply_chain.repository.BatchStatusTotal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch counts per creator and status for dashboards.
+ * The batch_status_counters table is updated in the same transaction as every batch creation and
+ * status change, so reading the statistics costs one small query however many batches exist.
+ */
+@Service
+public class BatchStatisticsService {
+    private final BatchStatusCounterRepository counterRepository;
+    private final CurrentUserService currentUserService;
+
+    @Autowired
+    public BatchStatisticsService(BatchStatusCounterRepository counterRepository, CurrentUserService currentUserService) {
+        this.counterRepository = counterRepository;
+        this.currentUserService = currentUserService;
+    }
+
+    @Transactional
+    public void recordCreated(Batch batch) {
+        counterRepository.increment(batch.getCreatedBy().getId(), batch.getStatus().name(), 1);
+    }
+
+    /**
+     * Moves a batch from its previous status to its current one; does nothing if the status did not change.
+     * Callers load the batch with a locking finder, otherwise two concurrent changes would both move it
+     * away from the same old status.
+     * @param batch Batch with its new status set
+     * @param oldStatus Status before the change
+     */
+    @Transactional
+    public void recordStatusChange(Batch batch, Batch.BatchStatus oldStatus) {
+        recordStatusChanges(List.of(StatusChange.of(batch, oldStatus)));
+    }
+
+    /**
+     * Applies many status changes with one counter update per affected user and status
+     * @param changes Status changes, at most one per batch
+     */
+    @Transactional
+    public void recordStatusChanges(Collection<StatusChange> changes) {
+        Map<BatchStatusCounter.Key, Long> deltas = new HashMap<>();
+        for (StatusChange change : changes) {
+            if (change.oldStatus() != change.newStatus()) {
+                deltas.merge(new BatchStatusCounter.Key(change.userId(), change.oldStatus()), -1L, Long::sum);
+                deltas.merge(new BatchStatusCounter.Key(change.userId(), change.newStatus()), 1L, Long::sum);
+            }
+        }
+
+        deltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                counterRepository.increment(key.userId(), key.status().name(), delta);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public BatchStatsDTO getCurrentUserStats() {
+        Map<Batch.BatchStatus, Long> counts = new EnumMap<>(Batch.BatchStatus.class);
+        for (BatchStatusCounter counter : counterRepository.findByUserId(currentUserService.getPrincipal().id())) {
+            counts.put(counter.getStatus(), counter.getBatchCount());
+        }
+        return toStats(counts);
+    }
+
+    @Transactional(readOnly = true)
+    public BatchStatsDTO getGlobalStats() {
+        Map<Batch.BatchStatus, Long> counts = new EnumMap<>(Batch.BatchStatus.class);
+        for (BatchStatusTotal total : counterRepository.sumByStatus()) {
+            counts.put(total.getStatus(), total.getCount());
+        }
+        return toStats(counts);
+    }
+
+    private BatchStatsDTO toStats(Map<Batch.BatchStatus, Long> counts) {
+        Map<String, Long> countsByStatus = new LinkedHashMap<>();
+        long total = 0;
+        for (Batch.BatchStatus status : Batch.BatchStatus.values()) {
+            long count = counts.getOrDefault(status, 0L);
+            countsByStatus.put(status.name(), count);
+            total += count;
+        }
+        return new BatchStatsDTO(countsByStatus, total);
+    }
+
+    /**
+     * Change of one batch's status, attributed to the batch's creator
+     */
+    public record StatusChange(Long userId, Batch.BatchStatus oldStatus, Batch.BatchStatus newStatus) {
+        public static StatusChange of(Batch batch, Batch.BatchStatus oldStatus) {
+            return new StatusChange(batch.getCreatedBy().getId(), oldStatus, batch.getStatus());
+        }
+    }
+}
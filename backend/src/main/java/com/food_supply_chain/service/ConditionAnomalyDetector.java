@@ -0,0 +1,314 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.model.ProductConditionThresholds;
+import com.food_supply_chain.model.User;
+import com.food_supply_chain.repository.ProductConditionThresholdsRepository;
+import com.food_supply_chain.repository.ProductRepository;
+import com.food_supply_chain.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates environmental readings as they arrive against the limits of their product and raises
+ * QUALITY_ISSUE notifications as soon as a rule is broken, instead of finding breaches later by querying.
+ * Rules: temperature or humidity out of range for longer than the allowed excursion, temperature changing
+ * faster than the allowed rate, and cumulative degree-minutes above the maximum temperature.
+ * Per-product state is an immutable snapshot swapped with compare-and-set, so concurrent uploads for the
+ * same product never block each other. State lives in memory and starts over when the node restarts.
+ */
+@Service
+public class ConditionAnomalyDetector {
+    private static final Logger log = LoggerFactory.getLogger(ConditionAnomalyDetector.class);
+
+    private final ProductConditionThresholdsRepository thresholdsRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate afterCommitTransaction;
+    private final Thresholds defaults;
+    private final Cache<Long, Thresholds> thresholdsByProduct = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .maximumSize(100_000)
+            .build();
+    private final ConcurrentMap<Long, AtomicReference<WindowState>> states = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConditionAnomalyDetector(
+            ProductConditionThresholdsRepository thresholdsRepository,
+            ProductRepository productRepository,
+            UserRepository userRepository,
+            NotificationService notificationService,
+            PlatformTransactionManager transactionManager,
+            @Value("${anomalies.defaults.min-temperature:#{null}}") Double minTemperature,
+            @Value("${anomalies.defaults.max-temperature:#{null}}") Double maxTemperature,
+            @Value("${anomalies.defaults.min-humidity:#{null}}") Double minHumidity,
+            @Value("${anomalies.defaults.max-humidity:#{null}}") Double maxHumidity,
+            @Value("${anomalies.defaults.max-excursion-minutes:20}") int maxExcursionMinutes,
+            @Value("${anomalies.defaults.max-temperature-change-per-minute:1.0}") double maxTemperatureChangePerMinute,
+            @Value("${anomalies.defaults.max-degree-minutes:60}") double maxDegreeMinutes) {
+        this.thresholdsRepository = thresholdsRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.afterCommitTransaction = new TransactionTemplate(transactionManager);
+        this.afterCommitTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaults = new Thresholds(minTemperature, maxTemperature, minHumidity, maxHumidity,
+                maxExcursionMinutes, maxTemperatureChangePerMinute, maxDegreeMinutes);
+    }
+
+    /**
+     * Feeds one reading to the product's rules and notifies about every rule it breaks
+     * @param productId Product the reading belongs to
+     * @param timestamp Time of measurement; readings older than the latest one seen are ignored
+     * @param temperature Temperature in Celsius, or null
+     * @param humidity Relative humidity in percent, or null
+     * @param reporterId User who uploaded the reading, notified along with the product's farmer; may be null
+     */
+    public void evaluate(long productId, LocalDateTime timestamp, Double temperature, Double humidity, Long reporterId) {
+        Thresholds thresholds = thresholdsFor(productId);
+        AtomicReference<WindowState> state = states.computeIfAbsent(productId, id -> new AtomicReference<>(WindowState.EMPTY));
+
+        Transition transition;
+        WindowState current;
+        do {
+            current = state.get();
+            transition = current.next(timestamp, temperature, humidity, thresholds);
+        } while (!state.compareAndSet(current, transition.state()));
+
+        for (String issue : transition.issues()) {
+            notifyIssue(productId, issue, reporterId);
+        }
+    }
+
+    /**
+     * Returns the limits in force for a product, with defaults for everything it does not set itself
+     * @param productId ID of the product
+     */
+    public Thresholds thresholdsFor(long productId) {
+        return thresholdsByProduct.get(productId, id -> thresholdsRepository.findById(id)
+                .map(this::withDefaults)
+                .orElse(defaults));
+    }
+
+    public Thresholds withDefaults(ProductConditionThresholds own) {
+        return new Thresholds(
+                own.getMinTemperature() != null ? own.getMinTemperature() : defaults.minTemperature(),
+                own.getMaxTemperature() != null ? own.getMaxTemperature() : defaults.maxTemperature(),
+                own.getMinHumidity() != null ? own.getMinHumidity() : defaults.minHumidity(),
+                own.getMaxHumidity() != null ? own.getMaxHumidity() : defaults.maxHumidity(),
+                own.getMaxExcursionMinutes() != null ? own.getMaxExcursionMinutes() : defaults.maxExcursionMinutes(),
+                own.getMaxTemperatureChangePerMinute() != null
+                        ? own.getMaxTemperatureChangePerMinute() : defaults.maxTemperatureChangePerMinute(),
+                own.getMaxDegreeMinutes() != null ? own.getMaxDegreeMinutes() : defaults.maxDegreeMinutes());
+    }
+
+    /**
+     * Evaluates a reading saved in the current transaction once that transaction commits, so a reading that is
+     * rolled back neither advances the product's state nor raises notifications
+     * @see #evaluate(long, LocalDateTime, Double, Double, Long)
+     */
+    public void evaluateAfterCommit(long productId, LocalDateTime timestamp, Double temperature, Double humidity,
+                                    Long reporterId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evaluate(productId, timestamp, temperature, humidity, reporterId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    // The committed transaction is still bound to the thread, so notifications need their own
+                    afterCommitTransaction.executeWithoutResult(
+                            status -> evaluate(productId, timestamp, temperature, humidity, reporterId));
+                } catch (RuntimeException e) {
+                    // The reading is stored; never turn its request into an error after the fact
+                    log.error("Failed to evaluate reading of product {} at {}", productId, timestamp, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops the cached limits of a product after they were changed in the current transaction
+     * @param productId ID of the product
+     */
+    public void thresholdsChanged(Long productId) {
+        thresholdsByProduct.invalidate(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Evict again after commit so that a concurrent reading cannot re-cache the old row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    thresholdsByProduct.invalidate(productId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Forgets everything known about a deleted product
+     * @param productId ID of the product
+     */
+    public void forget(Long productId) {
+        thresholdsByProduct.invalidate(productId);
+        states.remove(productId);
+    }
+
+    private void notifyIssue(long productId, String issue, Long reporterId) {
+        try {
+            productRepository.findById(productId).ifPresent(product -> {
+                List<User> usersToNotify = new ArrayList<>(2);
+                usersToNotify.add(product.getCreatedBy());
+                if (reporterId != null && !reporterId.equals(product.getCreatedBy().getId())) {
+                    usersToNotify.add(userRepository.getReferenceById(reporterId));
+                }
+                notificationService.createProductQualityIssueNotification(
+                        product.getId(), product.getName(), issue, usersToNotify);
+            });
+        } catch (RuntimeException e) {
+            // Never fail the upload that carried the reading
+            log.error("Failed to notify quality issue of product {}: {}", productId, issue, e);
+        }
+    }
+
+    /**
+     * Limits applied to a product's readings; null range bounds are not checked
+     */
+    public record Thresholds(Double minTemperature, Double maxTemperature, Double minHumidity, Double maxHumidity,
+                             int maxExcursionMinutes, double maxTemperatureChangePerMinute, double maxDegreeMinutes) {
+    }
+
+    record Transition(WindowState state, List<String> issues) {
+    }
+
+    /**
+     * What the rules remember about one product between readings. Each issue is reported once when it
+     * starts; excursions are reported again only after the reading has been back in range.
+     */
+    record WindowState(LocalDateTime lastTimestamp,
+                       LocalDateTime lastTemperatureAt, Double lastTemperature,
+                       LocalDateTime temperatureExcursionStart, boolean temperatureExcursionReported,
+                       LocalDateTime humidityExcursionStart, boolean humidityExcursionReported,
+                       LocalDateTime rateReportedAt,
+                       double degreeMinutes, boolean degreeMinutesReported) {
+        static final WindowState EMPTY = new WindowState(null, null, null, null, false, null, false, null, 0, false);
+
+        Transition next(LocalDateTime timestamp, Double temperature, Double humidity, Thresholds thresholds) {
+            if (lastTimestamp != null && !timestamp.isAfter(lastTimestamp)) {
+                // Late or repeated reading; the windows have already moved past it
+                return new Transition(this, List.of());
+            }
+
+            List<String> issues = new ArrayList<>(0);
+            LocalDateTime newLastTemperatureAt = lastTemperatureAt;
+            Double newLastTemperature = lastTemperature;
+            LocalDateTime newTemperatureExcursionStart = temperatureExcursionStart;
+            boolean newTemperatureExcursionReported = temperatureExcursionReported;
+            LocalDateTime newHumidityExcursionStart = humidityExcursionStart;
+            boolean newHumidityExcursionReported = humidityExcursionReported;
+            LocalDateTime newRateReportedAt = rateReportedAt;
+            double newDegreeMinutes = degreeMinutes;
+            boolean newDegreeMinutesReported = degreeMinutesReported;
+
+            if (temperature != null) {
+                if (outOfRange(temperature, thresholds.minTemperature(), thresholds.maxTemperature())) {
+                    if (newTemperatureExcursionStart == null) {
+                        newTemperatureExcursionStart = timestamp;
+                    }
+                    long minutes = Duration.between(newTemperatureExcursionStart, timestamp).toMinutes();
+                    if (!newTemperatureExcursionReported && minutes >= thresholds.maxExcursionMinutes()) {
+                        issues.add(format("Temperature %.1f°C has been outside %s°C for %d minutes",
+                                temperature, range(thresholds.minTemperature(), thresholds.maxTemperature()), minutes));
+                        newTemperatureExcursionReported = true;
+                    }
+                } else {
+                    newTemperatureExcursionStart = null;
+                    newTemperatureExcursionReported = false;
+                }
+
+                // Gaps longer than the allowed excursion are treated as missing data rather than interpolated
+                double minutesSinceLast = lastTemperatureAt != null
+                        ? Duration.between(lastTemperatureAt, timestamp).toMillis() / 60_000.0 : 0;
+                if (minutesSinceLast > 0 && minutesSinceLast <= thresholds.maxExcursionMinutes()) {
+                    double change = temperature - lastTemperature;
+                    boolean rateRecentlyReported = newRateReportedAt != null
+                            && Duration.between(newRateReportedAt, timestamp).toMinutes() < thresholds.maxExcursionMinutes();
+                    if (Math.abs(change) / minutesSinceLast > thresholds.maxTemperatureChangePerMinute()
+                            && !rateRecentlyReported) {
+                        issues.add(format("Temperature changed by %+.1f°C in %.1f minutes", change, minutesSinceLast));
+                        newRateReportedAt = timestamp;
+                    }
+
+                    if (thresholds.maxTemperature() != null) {
+                        // Area above the maximum between the two readings
+                        double excessBefore = Math.max(0, lastTemperature - thresholds.maxTemperature());
+                        double excessNow = Math.max(0, temperature - thresholds.maxTemperature());
+                        newDegreeMinutes += (excessBefore + excessNow) / 2 * minutesSinceLast;
+                        if (!newDegreeMinutesReported && newDegreeMinutes > thresholds.maxDegreeMinutes()) {
+                            issues.add(format("Cumulative heat exposure of %.0f degree-minutes above %s°C exceeds %.0f",
+                                    newDegreeMinutes, thresholds.maxTemperature(), thresholds.maxDegreeMinutes()));
+                            newDegreeMinutesReported = true;
+                        }
+                    }
+                }
+
+                newLastTemperatureAt = timestamp;
+                newLastTemperature = temperature;
+            }
+
+            if (humidity != null) {
+                if (outOfRange(humidity, thresholds.minHumidity(), thresholds.maxHumidity())) {
+                    if (newHumidityExcursionStart == null) {
+                        newHumidityExcursionStart = timestamp;
+                    }
+                    long minutes = Duration.between(newHumidityExcursionStart, timestamp).toMinutes();
+                    if (!newHumidityExcursionReported && minutes >= thresholds.maxExcursionMinutes()) {
+                        issues.add(format("Humidity %.0f%% has been outside %s%% for %d minutes",
+                                humidity, range(thresholds.minHumidity(), thresholds.maxHumidity()), minutes));
+                        newHumidityExcursionReported = true;
+                    }
+                } else {
+                    newHumidityExcursionStart = null;
+                    newHumidityExcursionReported = false;
+                }
+            }
+
+            return new Transition(new WindowState(timestamp, newLastTemperatureAt, newLastTemperature,
+                    newTemperatureExcursionStart, newTemperatureExcursionReported,
+                    newHumidityExcursionStart, newHumidityExcursionReported,
+                    newRateReportedAt, newDegreeMinutes, newDegreeMinutesReported), issues);
+        }
+
+        private static boolean outOfRange(double value, Double min, Double max) {
+            return (min != null && value < min) || (max != null && value > max);
+        }
+
+        private static String range(Double min, Double max) {
+            return (min != null ? String.valueOf(min) : "") + ".." + (max != null ? String.valueOf(max) : "");
+        }
+
+        private static String format(String format, Object... args) {
+            return String.format(Locale.ROOT, format, args);
+        }
+    }
+}
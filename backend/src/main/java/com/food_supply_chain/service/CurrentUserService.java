@@ -0,0 +1,120 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.exception.ResourceNotFoundException;
+import com.food_supply_chain.model.User;
+import com.food_supply_chain.repository.UserRepository;
+import com.food_supply_chain.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Resolves the authenticated user once per request.
+ * JwtAuthenticationFilter puts a {@link UserPrincipal} into the security context, built from the token's claims
+ * (or, for tokens without them, loaded through a short-lived cache); services read role, username and id from it
+ * and use {@link #getCurrentUserReference()} when they only need the user as an association, so neither costs a query.
+ * Token versions are cached the same way, and UserService evicts both when a user is changed.
+ */
+@Service
+public class CurrentUserService {
+    private final UserRepository userRepository;
+    private final Cache<String, Optional<UserPrincipal>> principals;
+    // Current token version per user id; empty for disabled or deleted users
+    private final Cache<Long, Optional<Long>> tokenVersions;
+
+    @Autowired
+    public CurrentUserService(
+            UserRepository userRepository,
+            @Value("${security.user-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${security.user-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+        this.tokenVersions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Looks up the principal for a username, from the cache when possible
+     * @param username Username from a verified token
+     * @return The principal, or empty if no such user exists
+     */
+    public Optional<UserPrincipal> loadPrincipal(String username) {
+        return principals.get(username, name -> userRepository.findByUsername(name).map(UserPrincipal::from));
+    }
+
+    /**
+     * Checks that a principal built from token claims is still valid, i.e. the user is enabled and its role,
+     * permissions and username have not changed since the token was issued
+     * @param principal Principal from JwtService.getPrincipal
+     */
+    public boolean isCurrentTokenVersion(UserPrincipal principal) {
+        return tokenVersions.get(principal.id(), userRepository::findActiveTokenVersion)
+                .filter(version -> version == principal.tokenVersion())
+                .isPresent();
+    }
+
+    public UserPrincipal getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+
+        // Authentications created elsewhere (e.g. tests) carry just the username
+        String username = authentication != null ? authentication.getName() : null;
+        return (username != null ? loadPrincipal(username) : Optional.<UserPrincipal>empty())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    /**
+     * Returns an uninitialized reference to the current user, for setting associations such as createdBy
+     * without loading the row
+     */
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getPrincipal().id());
+    }
+
+    /**
+     * Loads the current user's entity, for the few callers that need fields the principal does not carry
+     */
+    public User getCurrentUser() {
+        return userRepository.findById(getPrincipal().id())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    /**
+     * Drops the cached principal and token version, after the current transaction commits if there is one
+     * @param userId Id of the changed user
+     * @param username Username of the changed user
+     */
+    public void evict(Long userId, String username) {
+        invalidate(userId, username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Evict again after commit so that a concurrent request cannot re-cache the old row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId, username);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long userId, String username) {
+        principals.invalidate(username);
+        tokenVersions.invalidate(userId);
+    }
+}
@@ -0,0 +1,63 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.repository.EnvironmentalArchiveRepository;
+import com.food_supply_chain.repository.EnvironmentalArchiveRepository.ProductDay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Moves environmental readings older than the retention period out of product_environmental_conditions into
+ * compact per-product, per-day blocks (see migration V12), oldest day first and one transaction per day.
+ * Archived readings stay readable through {@link EnvironmentalArchiveRepository#findReadings}.
+ */
+@Component
+public class EnvironmentalReadingArchiver {
+    private static final Logger log = LoggerFactory.getLogger(EnvironmentalReadingArchiver.class);
+
+    private final EnvironmentalArchiveRepository archiveRepository;
+    private final int retentionDays;
+    private final int maxDaysPerRun;
+
+    @Autowired
+    public EnvironmentalReadingArchiver(
+            EnvironmentalArchiveRepository archiveRepository,
+            @Value("${sensors.archive.retention-days:90}") int retentionDays,
+            @Value("${sensors.archive.max-days-per-run:1000}") int maxDaysPerRun) {
+        this.archiveRepository = archiveRepository;
+        this.retentionDays = retentionDays;
+        this.maxDaysPerRun = maxDaysPerRun;
+    }
+
+    @Scheduled(cron = "${sensors.archive.cron:0 30 3 * * *}")
+    public void archiveExpiredReadings() {
+        if (retentionDays <= 0) {
+            return;
+        }
+
+        // Whole days only, so every block covers a complete day
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        int days = 0;
+        long readings = 0;
+        try {
+            Optional<ProductDay> next;
+            while (days < maxDaysPerRun && (next = archiveRepository.findOldestLiveDay(cutoff)).isPresent()) {
+                readings += archiveRepository.archiveDay(next.get(), cutoff);
+                days++;
+            }
+        } catch (RuntimeException e) {
+            log.error("Archiving environmental readings failed after {} product days", days, e);
+        }
+
+        if (days > 0) {
+            log.info("Archived {} environmental readings of {} product days", readings, days);
+        }
+    }
+}
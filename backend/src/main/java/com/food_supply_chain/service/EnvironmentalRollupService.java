@@ -0,0 +1,208 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.exception.ResourceNotFoundException;
+import com.food_supply_chain.model.EnvironmentalReading;
+import com.food_supply_chain.model.EnvironmentalRollup;
+import com.food_supply_chain.model.ProductEnvironmentalCondition;
+import com.food_supply_chain.model.dto.EnvironmentalHistoryDTO;
+import com.food_supply_chain.model.dto.EnvironmentalRollupDTO;
+import com.food_supply_chain.repository.EnvironmentalArchiveRepository;
+import com.food_supply_chain.repository.EnvironmentalRollupRepository;
+import com.food_supply_chain.repository.ProductEnvironmentalConditionRepository;
+import com.food_supply_chain.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Environmental history of products from the minute, hour and day rollups (see migration V11).
+ * Readings are added to the rollups as they are stored; a history request is answered at the finest resolution
+ * that keeps the response under MAX_POINTS points, and short ranges are answered with the raw readings.
+ * Minute and hour rollups can be given a retention period, after which ranges reaching that far back use a
+ * coarser resolution.
+ */
+@Service
+public class EnvironmentalRollupService {
+    private static final Logger log = LoggerFactory.getLogger(EnvironmentalRollupService.class);
+
+    public static final String RAW = "RAW";
+    static final int MAX_POINTS = 1500;
+    static final Duration MAX_RAW_RANGE = Duration.ofHours(1);
+    static final Duration DEFAULT_RANGE = Duration.ofDays(7);
+
+    private final EnvironmentalRollupRepository rollupRepository;
+    private final ProductEnvironmentalConditionRepository conditionRepository;
+    private final ProductRepository productRepository;
+    private final EnvironmentalArchiveRepository archiveRepository;
+    private final int minuteRetentionDays;
+    private final int hourRetentionDays;
+
+    @Autowired
+    public EnvironmentalRollupService(
+            EnvironmentalRollupRepository rollupRepository,
+            ProductEnvironmentalConditionRepository conditionRepository,
+            ProductRepository productRepository,
+            EnvironmentalArchiveRepository archiveRepository,
+            @Value("${sensors.rollups.minute-retention-days:30}") int minuteRetentionDays,
+            @Value("${sensors.rollups.hour-retention-days:0}") int hourRetentionDays) {
+        this.rollupRepository = rollupRepository;
+        this.conditionRepository = conditionRepository;
+        this.productRepository = productRepository;
+        this.archiveRepository = archiveRepository;
+        this.minuteRetentionDays = minuteRetentionDays;
+        this.hourRetentionDays = hourRetentionDays;
+    }
+
+    /**
+     * Adds a reading stored through JPA to its product's rollups, in the caller's transaction.
+     * Bulk sensor uploads are added by SensorReadingBulkRepository instead.
+     * @param condition Saved condition
+     */
+    @Transactional
+    public void record(ProductEnvironmentalCondition condition) {
+        rollupRepository.addReading(condition.getProduct().getId(), condition.getTimestamp(),
+                condition.getTemperature(), condition.getHumidity());
+    }
+
+    /**
+     * Environmental history of a product between two times
+     * @param productId ID of the product
+     * @param from Start of the range, defaults to DEFAULT_RANGE before the end
+     * @param to End of the range, defaults to now
+     * @param resolution RAW, MINUTE, HOUR or DAY; chosen from the length of the range when null
+     * @return Points in ascending time order
+     */
+    @Transactional(readOnly = true)
+    public EnvironmentalHistoryDTO getHistory(Long productId, LocalDateTime from, LocalDateTime to, String resolution) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(DEFAULT_RANGE);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        Duration range = Duration.between(start, end);
+        String chosen = resolution != null ? resolution.toUpperCase(Locale.ROOT) : chooseResolution(start, range);
+
+        if (RAW.equals(chosen)) {
+            if (range.compareTo(MAX_RAW_RANGE) > 0) {
+                throw new IllegalArgumentException("Raw readings can only be requested for up to " +
+                        MAX_RAW_RANGE.toMinutes() + " minutes");
+            }
+            List<EnvironmentalRollupDTO> points = new ArrayList<>();
+            conditionRepository.findByProductIdAndTimestampBetweenOrderByTimestamp(productId, start, end)
+                    .forEach(condition -> points.add(toPoint(condition)));
+            // Ranges past the retention window are answered from the archive
+            archiveRepository.findReadings(productId, start, end)
+                    .forEach(reading -> points.add(toPoint(reading)));
+            points.sort(Comparator.comparing(EnvironmentalRollupDTO::getBucketStart));
+            return new EnvironmentalHistoryDTO(productId, RAW, start, end, points);
+        }
+
+        EnvironmentalRollup.Resolution rollupResolution = parseResolution(chosen);
+        if (range.dividedBy(rollupResolution.duration()) > MAX_POINTS) {
+            throw new IllegalArgumentException("Range too long for resolution " + rollupResolution +
+                    ", at most " + MAX_POINTS + " points can be requested");
+        }
+
+        List<EnvironmentalRollupDTO> points = rollupRepository
+                .findByProductIdAndResolutionAndBucketStartBetweenOrderByBucketStart(
+                        productId, rollupResolution, rollupResolution.truncate(start), end)
+                .stream()
+                .map(EnvironmentalRollupService::toPoint)
+                .toList();
+        return new EnvironmentalHistoryDTO(productId, rollupResolution.name(), start, end, points);
+    }
+
+    /**
+     * Deletes minute and hour rollups older than their retention period; day rollups are kept
+     */
+    @Scheduled(cron = "${sensors.rollups.purge-cron:0 45 2 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        purge(EnvironmentalRollup.Resolution.MINUTE, minuteRetentionDays);
+        purge(EnvironmentalRollup.Resolution.HOUR, hourRetentionDays);
+    }
+
+    private void purge(EnvironmentalRollup.Resolution resolution, int retentionDays) {
+        if (retentionDays <= 0) {
+            return;
+        }
+        int deleted = rollupRepository.deleteOlderThan(resolution, LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Deleted {} expired {} environmental rollups", deleted, resolution);
+        }
+    }
+
+    /**
+     * Finest resolution that is still retained at the start of the range and keeps it within MAX_POINTS
+     */
+    private String chooseResolution(LocalDateTime start, Duration range) {
+        if (range.compareTo(MAX_RAW_RANGE) <= 0) {
+            return RAW;
+        }
+        for (EnvironmentalRollup.Resolution resolution : EnvironmentalRollup.Resolution.values()) {
+            if (range.dividedBy(resolution.duration()) <= MAX_POINTS && isRetained(resolution, start)) {
+                return resolution.name();
+            }
+        }
+        return EnvironmentalRollup.Resolution.DAY.name();
+    }
+
+    private boolean isRetained(EnvironmentalRollup.Resolution resolution, LocalDateTime start) {
+        int retentionDays = switch (resolution) {
+            case MINUTE -> minuteRetentionDays;
+            case HOUR -> hourRetentionDays;
+            case DAY -> 0;
+        };
+        return retentionDays <= 0 || !start.isBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    private static EnvironmentalRollup.Resolution parseResolution(String resolution) {
+        try {
+            return EnvironmentalRollup.Resolution.valueOf(resolution);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown resolution: " + resolution + ", expected RAW, MINUTE, HOUR or DAY");
+        }
+    }
+
+    private static EnvironmentalRollupDTO toPoint(EnvironmentalRollup rollup) {
+        return new EnvironmentalRollupDTO(
+                rollup.getBucketStart(),
+                rollup.getReadingCount(),
+                rollup.getTemperatureMin(),
+                rollup.getTemperatureMax(),
+                rollup.getTemperatureMean(),
+                rollup.getHumidityMin(),
+                rollup.getHumidityMax(),
+                rollup.getHumidityMean()
+        );
+    }
+
+    private static EnvironmentalRollupDTO toPoint(ProductEnvironmentalCondition condition) {
+        return toPoint(condition.getTimestamp(), condition.getTemperature(), condition.getHumidity());
+    }
+
+    private static EnvironmentalRollupDTO toPoint(EnvironmentalReading reading) {
+        return toPoint(reading.timestamp(), reading.temperature(), reading.humidity());
+    }
+
+    private static EnvironmentalRollupDTO toPoint(LocalDateTime timestamp, Double temperature, Double humidity) {
+        return new EnvironmentalRollupDTO(timestamp, 1, temperature, temperature, temperature,
+                humidity, humidity, humidity);
+    }
+}
@@ -0,0 +1,75 @@
+package com.food_supply_chain.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of the event tables (see migration V7).
+ * Future months are created ahead of time at startup and daily; when a retention period is set,
+ * partitions older than it are detached, leaving them as plain tables to archive and drop.
+ */
+@Component
+public class EventPartitionMaintenance {
+    private static final Logger log = LoggerFactory.getLogger(EventPartitionMaintenance.class);
+
+    private static final List<String> PARTITIONED_TABLES = List.of("supply_chain_events", "batch_events");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    @Autowired
+    public EventPartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${app.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${app.partitions.maintenance-cron:0 15 2 * * *}")
+    public void maintainPartitions() {
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                Integer created = jdbcTemplate.queryForObject(
+                        "SELECT ensure_monthly_partitions(?, ?)", Integer.class, table, monthsAhead);
+                if (created != null && created > 0) {
+                    log.info("Created {} monthly partitions of {}", created, table);
+                }
+
+                if (retentionMonths > 0) {
+                    detachExpiredPartitions(table);
+                }
+            } catch (RuntimeException e) {
+                log.error("Partition maintenance failed for {}", table, e);
+            }
+        }
+    }
+
+    private void detachExpiredPartitions(String table) {
+        // Keep the current month plus retentionMonths full months before it
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths);
+        List<String> detached = jdbcTemplate.queryForList(
+                "SELECT detach_monthly_partitions(?, ?)", String.class, table, Date.valueOf(cutoff));
+        for (String partition : detached) {
+            log.info("Detached partition {} from {}; it can now be archived and dropped", partition, table);
+        }
+    }
+}
@@ -1,27 +1,62 @@
 package com.food_supply_chain.service;
 
+import com.food_supply_chain.model.User;
+import com.food_supply_chain.security.Permission;
+import com.food_supply_chain.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
+    private static final int MAX_CACHED_TOKENS = 100_000;
+
+    // Identity claims, enough to authenticate a request without loading the user
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_PERMISSIONS = "perms";
+    private static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long expiration;
 
-    public String generateToken(String username) {
+    // Claims of tokens whose signature has already been verified, keyed by token digest; each entry expires with its token
+    private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TOKENS)
+            .expireAfter(new TokenExpiry())
+            .build();
+
+    /**
+     * Issues a token carrying the user's id, role, permission bitset and token version
+     * @param user User loaded from the database, including its token version
+     */
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_PERMISSIONS, Permission.encode(user.getPermissions()));
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0L);
+        return createToken(claims, user.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
@@ -34,6 +69,55 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * Verifies the token's signature and expiry with a single parse, reusing the result of earlier
+     * verifications of the same token until it expires
+     * @param token Compact JWT from the Authorization header
+     * @return The token's claims, or empty if it is malformed, forged, expired or has no expiry
+     */
+    public Optional<Claims> verify(String token) {
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Claims claims;
+        try {
+            claims = getAllClaimsFromToken(token); // Also rejects expired tokens
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (claims.getExpiration() == null) {
+            return Optional.empty();
+        }
+
+        verifiedTokens.put(digest, claims);
+        return Optional.of(claims);
+    }
+
+    /**
+     * Builds the principal from the identity claims of a verified token
+     * @param claims Claims returned by {@link #verify(String)}
+     * @return The principal, or empty for tokens issued without identity claims
+     */
+    public Optional<UserPrincipal> getPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Number permissions = claims.get(CLAIM_PERMISSIONS, Number.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        if (userId == null || role == null || permissions == null || tokenVersion == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new UserPrincipal(userId.longValue(), claims.getSubject(), User.Role.valueOf(role),
+                    permissions.longValue(), true, tokenVersion.longValue()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
     }
@@ -51,17 +135,34 @@ public class JwtService {
         return getClaimFromToken(token, Claims::getExpiration);
     }
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
-    public boolean validateToken(String token) {
+    private static String digest(String token) {
         try {
-            Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-}
\ No newline at end of file
+}
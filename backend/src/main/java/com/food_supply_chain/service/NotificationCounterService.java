@@ -0,0 +1,97 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.model.NotificationCounter;
+import com.food_supply_chain.repository.NotificationCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user unread notification counts.
+ * The notification_counters table is the source of truth and is updated incrementally together
+ * with the notifications themselves; an in-memory map answers reads without touching the database.
+ * Cached entries are re-read from their counter row after a short interval so that changes made
+ * by other application nodes are picked up.
+ */
+@Service
+public class NotificationCounterService {
+    private final NotificationCounterRepository counterRepository;
+    private final Map<Long, CachedCount> counts = new ConcurrentHashMap<>();
+    private final long refreshNanos;
+
+    @Autowired
+    public NotificationCounterService(
+            NotificationCounterRepository counterRepository,
+            @Value("${notifications.counter.refresh-seconds:60}") long refreshSeconds) {
+        this.counterRepository = counterRepository;
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    // Not read-only: a lagging replica would return a count that misses deltas already applied here
+    @Transactional
+    public long getUnreadCount(Long userId) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(userId);
+        if (cached != null && now - cached.loadedAt() <= refreshNanos) {
+            return cached.value();
+        }
+
+        // Load under the entry's lock so a committed delta cannot be applied to the old entry
+        // and then overwritten by a count read before that delta was committed
+        return counts.compute(userId, (id, current) -> {
+            if (current != null && System.nanoTime() - current.loadedAt() <= refreshNanos) {
+                return current;
+            }
+            long unreadCount = counterRepository.findById(id)
+                    .map(NotificationCounter::getUnreadCount)
+                    .orElse(0L);
+            return new CachedCount(unreadCount, System.nanoTime());
+        }).value();
+    }
+
+    /**
+     * Applies deltas to the cached counts after the counter rows were updated and committed
+     * @param deltas Change in unread count per user id
+     */
+    public void applyCommittedDeltas(Map<Long, Long> deltas) {
+        deltas.forEach((userId, delta) -> counts.computeIfPresent(userId, (id, cached) -> cached.plus(delta)));
+    }
+
+    @Transactional
+    public void decrement(Long userId) {
+        counterRepository.increment(userId, -1);
+        afterCommit(() -> counts.computeIfPresent(userId, (id, cached) -> cached.plus(-1)));
+    }
+
+    @Transactional
+    public void reset(Long userId) {
+        counterRepository.reset(userId);
+        afterCommit(() -> counts.put(userId, new CachedCount(0, System.nanoTime())));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record CachedCount(long value, long loadedAt) {
+        CachedCount plus(long delta) {
+            return new CachedCount(Math.max(value + delta, 0), loadedAt);
+        }
+    }
+}
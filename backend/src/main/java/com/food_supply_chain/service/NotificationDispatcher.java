@@ -0,0 +1,226 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.model.Notification;
+import com.food_supply_chain.repository.NotificationBulkRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes notifications off the request thread.
+ * Notifications created inside a transaction are held until it commits (and dropped on rollback),
+ * with duplicates inside that transaction removed, then queued for a single background worker
+ * that inserts them in JDBC batches. Identical notifications from separate transactions are separate events
+ * and are all kept.
+ * A write that fails is retried with backoff and then parked in notification_dead_letters, since the change
+ * it reports has already committed; only if that fails too are the notifications lost and logged.
+ */
+@Component
+public class NotificationDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationBulkRepository notificationBulkRepository;
+    private final NotificationCounterService notificationCounterService;
+    private final BlockingQueue<Notification> pending;
+    private final int batchSize;
+    private final int writeAttempts;
+    private final Duration retryBackoff;
+    private final ExecutorService executor;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    @Autowired
+    public NotificationDispatcher(
+            NotificationBulkRepository notificationBulkRepository,
+            NotificationCounterService notificationCounterService,
+            @Value("${notifications.dispatch.queue-capacity:50000}") int queueCapacity,
+            @Value("${notifications.dispatch.batch-size:500}") int batchSize,
+            @Value("${notifications.dispatch.write-attempts:3}") int writeAttempts,
+            @Value("${notifications.dispatch.retry-backoff-ms:500}") long retryBackoffMillis) {
+        this.notificationBulkRepository = notificationBulkRepository;
+        this.notificationCounterService = notificationCounterService;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writeAttempts = Math.max(writeAttempts, 1);
+        this.retryBackoff = Duration.ofMillis(retryBackoffMillis);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a notification for insertion once the current transaction (if any) commits
+     * @param notification Unsaved notification with its user set
+     */
+    public void dispatch(Notification notification) {
+        if (notification.getCreatedAt() == null) {
+            notification.setCreatedAt(LocalDateTime.now());
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            currentTransactionBuffer().add(notification);
+        } else {
+            submit(List.of(notification));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Notification> currentTransactionBuffer() {
+        List<Notification> buffer = (List<Notification>) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            List<Notification> newBuffer = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, newBuffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(NotificationDispatcher.this);
+                    if (status == STATUS_COMMITTED) {
+                        submit(coalesce(newBuffer));
+                    }
+                }
+            });
+            buffer = newBuffer;
+        }
+        return buffer;
+    }
+
+    private void submit(List<Notification> notifications) {
+        List<Notification> overflow = null;
+        for (Notification notification : notifications) {
+            if (!pending.offer(notification)) {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+                overflow.add(notification);
+            }
+        }
+
+        // When the queue is full, the caller writes its own notifications instead of dropping them
+        if (overflow != null) {
+            write(overflow);
+        }
+
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!pending.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            List<Notification> chunk = new ArrayList<>(batchSize);
+            while (pending.drainTo(chunk, batchSize) > 0) {
+                write(chunk);
+                chunk.clear();
+            }
+        } finally {
+            drainScheduled.set(false);
+            // Pick up anything queued while this run was finishing
+            scheduleDrain();
+        }
+    }
+
+    private void write(List<Notification> notifications) {
+        Map<Long, Long> unreadDeltas = new HashMap<>();
+        for (Notification notification : notifications) {
+            if (!notification.isRead()) {
+                unreadDeltas.merge(notification.getUser().getId(), 1L, Long::sum);
+            }
+        }
+
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= writeAttempts; attempt++) {
+            try {
+                notificationBulkRepository.insertAll(notifications, unreadDeltas);
+                notificationCounterService.applyCommittedDeltas(unreadDeltas);
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("Failed to write {} notifications (attempt {} of {})",
+                        notifications.size(), attempt, writeAttempts, e);
+            }
+            if (attempt < writeAttempts && !backOff(retryBackoff.multipliedBy(1L << (attempt - 1)))) {
+                break;
+            }
+        }
+        deadLetter(notifications, failure);
+    }
+
+    private void deadLetter(List<Notification> notifications, RuntimeException failure) {
+        try {
+            notificationBulkRepository.deadLetterAll(notifications, String.valueOf(failure));
+            log.error("Moved {} notifications to notification_dead_letters", notifications.size(), failure);
+        } catch (RuntimeException e) {
+            // The change they report has committed, so the log is the last place they can be recovered from
+            log.error("Lost {} notifications: {}", notifications.size(), notifications.stream()
+                    .map(NotificationKey::of)
+                    .toList(), e);
+        }
+    }
+
+    private static boolean backOff(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private List<Notification> coalesce(List<Notification> notifications) {
+        Map<NotificationKey, Notification> unique = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            unique.putIfAbsent(NotificationKey.of(notification), notification);
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<Notification> remaining = new ArrayList<>();
+        pending.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    private record NotificationKey(Long userId, String title, String message,
+                                   Notification.NotificationType type, String entityType, Long entityId) {
+        static NotificationKey of(Notification notification) {
+            return new NotificationKey(
+                    notification.getUser().getId(),
+                    notification.getTitle(),
+                    notification.getMessage(),
+                    notification.getNotificationType(),
+                    notification.getRelatedEntityType(),
+                    notification.getRelatedEntityId());
+        }
+    }
+}
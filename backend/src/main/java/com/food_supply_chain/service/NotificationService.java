@@ -5,11 +5,9 @@ import com.food_supply_chain.model.Notification;
 import com.food_supply_chain.model.SupplyChainEvent;
 import com.food_supply_chain.model.User;
 import com.food_supply_chain.repository.NotificationRepository;
-import com.food_supply_chain.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,12 +16,18 @@ import java.util.List;
 @Service
 public class NotificationService {
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationCounterService notificationCounterService;
 
     @Autowired
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationService(NotificationRepository notificationRepository, CurrentUserService currentUserService,
+                               NotificationDispatcher notificationDispatcher,
+                               NotificationCounterService notificationCounterService) {
         this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
+        this.notificationDispatcher = notificationDispatcher;
+        this.notificationCounterService = notificationCounterService;
     }
 
     @Transactional
@@ -85,6 +89,24 @@ public class NotificationService {
         }
     }
 
+    @Transactional
+    public void createProductQualityIssueNotification(Long productId, String productName, String issue,
+                                                      List<User> usersToNotify) {
+        String title = "Quality Issue Detected: " + productName;
+        String message = "Quality issue detected: " + issue;
+
+        for (User user : usersToNotify) {
+            createNotification(
+                    user,
+                    title,
+                    message,
+                    Notification.NotificationType.QUALITY_ISSUE,
+                    "Product",
+                    productId
+            );
+        }
+    }
+
     @Transactional
     public void createExpirationWarningNotification(Long batchId, String batchCode, int daysRemaining, List<User> usersToNotify) {
         String title = "Expiration Warning: " + batchCode;
@@ -127,59 +149,52 @@ public class NotificationService {
         notification.setRelatedEntityType(entityType);
         notification.setRelatedEntityId(entityId);
 
-        notificationRepository.save(notification);
+        // Inserted in batches after the surrounding transaction commits
+        notificationDispatcher.dispatch(notification);
     }
 
     @Transactional(readOnly = true)
     public Page<Notification> getUserNotifications(Pageable pageable) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserService.getCurrentUserReference();
 
         return notificationRepository.findByUserOrderByCreatedAtDesc(user, pageable);
     }
 
     @Transactional(readOnly = true)
     public List<Notification> getUnreadNotifications() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserService.getCurrentUserReference();
 
         return notificationRepository.findByUserAndReadOrderByCreatedAtDesc(user, false);
     }
 
     @Transactional(readOnly = true)
     public long countUnreadNotifications() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        return notificationRepository.countUnreadNotifications(user);
+        return notificationCounterService.getUnreadCount(currentUserService.getPrincipal().id());
     }
 
     @Transactional
     public void markNotificationAsRead(Long notificationId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = currentUserService.getPrincipal().id();
 
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found"));
 
-        if (!notification.getUser().getId().equals(user.getId())) {
+        if (!notification.getUser().getId().equals(userId)) {
             throw new IllegalArgumentException("Cannot mark someone else's notification as read");
         }
 
-        notification.setRead(true);
-        notificationRepository.save(notification);
+        if (!notification.isRead()) {
+            notification.setRead(true);
+            notificationRepository.save(notification);
+            notificationCounterService.decrement(userId);
+        }
     }
 
     @Transactional
     public void markAllNotificationsAsRead() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserService.getCurrentUserReference();
 
         notificationRepository.markAllAsRead(user);
+        notificationCounterService.reset(user.getId());
     }
 }
\ No newline at end of file
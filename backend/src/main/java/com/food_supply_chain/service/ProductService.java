@@ -4,58 +4,92 @@ import com.food_supply_chain.exception.DuplicateResourceException;
 import com.food_supply_chain.exception.ResourceNotFoundException;
 import com.food_supply_chain.mapper.ProductMapper;
 import com.food_supply_chain.model.Product;
+import com.food_supply_chain.model.ProductConditionThresholds;
 import com.food_supply_chain.model.ProductEnvironmentalCondition;
 import com.food_supply_chain.model.User;
+import com.food_supply_chain.model.dto.ConditionThresholdsDTO;
 import com.food_supply_chain.model.dto.ProductDTO;
 import com.food_supply_chain.model.dto.ProductEnvironmentalConditionDTO;
+import com.food_supply_chain.repository.BatchRepository;
+import com.food_supply_chain.repository.EnvironmentalArchiveRepository;
+import com.food_supply_chain.repository.ProductConditionThresholdsRepository;
 import com.food_supply_chain.repository.ProductEnvironmentalConditionRepository;
 import com.food_supply_chain.repository.ProductRepository;
-import com.food_supply_chain.repository.UserRepository;
+import com.food_supply_chain.security.UserPrincipal;
 import com.food_supply_chain.util.QRCodeGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final Duration DEFAULT_CONDITION_RANGE = Duration.ofDays(1);
+    private static final Duration MAX_CONDITION_RANGE = Duration.ofDays(7);
+    // Letters and digits only, so user input can never form tsquery operators
+    private static final Pattern SEARCH_WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final ProductEnvironmentalConditionRepository conditionRepository;
     private final ProductMapper productMapper;
     private final QRCodeGenerator qrCodeGenerator;
+    private final BatchRepository batchRepository;
+    private final PublicTrackingCache publicTrackingCache;
+    private final ProductConditionThresholdsRepository thresholdsRepository;
+    private final ConditionAnomalyDetector anomalyDetector;
+    private final EnvironmentalRollupService rollupService;
+    private final EnvironmentalArchiveRepository archiveRepository;
 
     @Autowired
     public ProductService(
             ProductRepository productRepository,
-            UserRepository userRepository,
+            CurrentUserService currentUserService,
             ProductEnvironmentalConditionRepository conditionRepository,
             ProductMapper productMapper,
-            QRCodeGenerator qrCodeGenerator) {
+            QRCodeGenerator qrCodeGenerator,
+            BatchRepository batchRepository,
+            PublicTrackingCache publicTrackingCache,
+            ProductConditionThresholdsRepository thresholdsRepository,
+            ConditionAnomalyDetector anomalyDetector,
+            EnvironmentalRollupService rollupService,
+            EnvironmentalArchiveRepository archiveRepository) {
         this.productRepository = productRepository;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
         this.conditionRepository = conditionRepository;
         this.productMapper = productMapper;
         this.qrCodeGenerator = qrCodeGenerator;
+        this.batchRepository = batchRepository;
+        this.publicTrackingCache = publicTrackingCache;
+        this.thresholdsRepository = thresholdsRepository;
+        this.anomalyDetector = anomalyDetector;
+        this.rollupService = rollupService;
+        this.archiveRepository = archiveRepository;
     }
 
     @Transactional
     public ProductDTO createProduct(ProductDTO productDTO) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UserPrincipal principal = currentUserService.getPrincipal();
+        String username = principal.username();
 
         // Check if user has FARMER role
-        if (user.getRole() != User.Role.FARMER && user.getRole() != User.Role.ADMIN) {
+        if (!principal.hasRole(User.Role.FARMER) && !principal.hasRole(User.Role.ADMIN)) {
             throw new AccessDeniedException("Only farmers can create products");
         }
 
@@ -72,7 +106,7 @@ public class ProductService {
         }
 
         Product product = productMapper.toEntity(productDTO);
-        product.setCreatedBy(user);
+        product.setCreatedBy(currentUserService.getCurrentUserReference());
 
         // Generate QR code URL
         String qrCodeUrl = qrCodeGenerator.generateProductQRCode(null, batchCode);
@@ -86,9 +120,8 @@ public class ProductService {
                 ProductEnvironmentalCondition condition = productMapper.toEnvironmentalConditionEntity(conditionDTO, savedProduct);
                 condition.setRecordedBy(username);
                 conditionRepository.save(condition);
+                rollupService.record(condition);
             }
-            // Refresh product with saved conditions
-            savedProduct = productRepository.findById(savedProduct.getId()).orElse(savedProduct);
         }
 
         return productMapper.toDTO(savedProduct);
@@ -110,9 +143,7 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getProductsByCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserService.getCurrentUserReference();
         return productRepository.findByCreatedBy(user)
                 .stream()
                 .map(productMapper::toDTO)
@@ -121,13 +152,17 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public Page<ProductDTO> getProductsByCurrentUser(Pageable pageable, String search) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserService.getCurrentUserReference();
 
         Page<Product> products;
         if (search != null && !search.trim().isEmpty()) {
-            products = productRepository.findByCreatedByAndSearch(user, search.trim(), pageable);
+            String query = toPrefixQuery(search);
+            if (query == null) {
+                return Page.empty(pageable);
+            }
+            // Search results are ranked by relevance, so the requested sort does not apply
+            Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            products = productRepository.findByCreatedByAndSearch(user.getId(), query, unsorted);
         } else {
             products = productRepository.findByCreatedBy(user, pageable);
         }
@@ -140,12 +175,10 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UserPrincipal currentUser = currentUserService.getPrincipal();
 
         // Only the creator or an admin can update the product
-        if (!product.getCreatedBy().getUsername().equals(username) && currentUser.getRole() != User.Role.ADMIN) {
+        if (!product.getCreatedBy().getId().equals(currentUser.id()) && !currentUser.hasRole(User.Role.ADMIN)) {
             throw new AccessDeniedException("You can only update your own products");
         }
 
@@ -153,6 +186,7 @@ public class ProductService {
         productMapper.updateEntity(product, productDTO);
 
         Product updatedProduct = productRepository.save(product);
+        evictPublicViews(id);
 
         // Update environmental conditions if provided
         if (productDTO.getEnvironmentalConditions() != null && !productDTO.getEnvironmentalConditions().isEmpty()) {
@@ -160,13 +194,12 @@ public class ProductService {
                 if (conditionDTO.getId() == null) {
                     // This is a new condition
                     ProductEnvironmentalCondition condition = productMapper.toEnvironmentalConditionEntity(conditionDTO, updatedProduct);
-                    condition.setRecordedBy(username);
+                    condition.setRecordedBy(currentUser.username());
                     conditionRepository.save(condition);
+                    rollupService.record(condition);
                 }
                 // If it has an ID, we'll assume it's handled separately through environmental condition endpoints
             }
-            // Refresh product with updated conditions
-            updatedProduct = productRepository.findById(updatedProduct.getId()).orElse(updatedProduct);
         }
 
         return productMapper.toDTO(updatedProduct);
@@ -177,16 +210,16 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UserPrincipal currentUser = currentUserService.getPrincipal();
 
         // Only the creator or an admin can delete the product
-        if (!product.getCreatedBy().getUsername().equals(username) && currentUser.getRole() != User.Role.ADMIN) {
+        if (!product.getCreatedBy().getId().equals(currentUser.id()) && !currentUser.hasRole(User.Role.ADMIN)) {
             throw new AccessDeniedException("You can only delete your own products");
         }
 
+        evictPublicViews(id);
         productRepository.delete(product);
+        anomalyDetector.forget(id);
     }
 
     @Transactional
@@ -194,33 +227,119 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        UserPrincipal principal = currentUserService.getPrincipal();
 
         ProductEnvironmentalCondition condition = productMapper.toEnvironmentalConditionEntity(conditionDTO, product);
-        condition.setRecordedBy(username);
+        condition.setRecordedBy(principal.username());
 
         conditionRepository.save(condition);
-
-        // Refresh product to get updated conditions
-        product = productRepository.findById(productId).orElse(product);
+        rollupService.record(condition);
+        evictPublicViews(productId);
+        anomalyDetector.evaluateAfterCommit(productId, condition.getTimestamp(), condition.getTemperature(),
+                condition.getHumidity(), principal.id());
 
         return productMapper.toDTO(product);
     }
 
+    /**
+     * Limits the anomaly detector applies to the product's readings, with defaults filled in
+     * @param productId ID of the product
+     */
     @Transactional(readOnly = true)
-    public List<ProductEnvironmentalConditionDTO> getProductEnvironmentalConditions(Long productId) {
+    public ConditionThresholdsDTO getConditionThresholds(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+
+        return toThresholdsDTO(anomalyDetector.thresholdsFor(productId));
+    }
+
+    /**
+     * Replaces the product's own anomaly detection limits; fields left null use the defaults
+     * @param productId ID of the product
+     * @param thresholdsDTO New limits
+     * @return The limits now in force
+     */
+    @Transactional
+    public ConditionThresholdsDTO updateConditionThresholds(Long productId, ConditionThresholdsDTO thresholdsDTO) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        return conditionRepository.findByProductOrderByTimestampDesc(product)
+        UserPrincipal currentUser = currentUserService.getPrincipal();
+
+        // Only the creator or an admin can change the limits
+        if (!product.getCreatedBy().getId().equals(currentUser.id()) && !currentUser.hasRole(User.Role.ADMIN)) {
+            throw new AccessDeniedException("You can only change the thresholds of your own products");
+        }
+
+        ProductConditionThresholds thresholds = new ProductConditionThresholds();
+        thresholds.setProductId(productId);
+        thresholds.setMinTemperature(thresholdsDTO.getMinTemperature());
+        thresholds.setMaxTemperature(thresholdsDTO.getMaxTemperature());
+        thresholds.setMinHumidity(thresholdsDTO.getMinHumidity());
+        thresholds.setMaxHumidity(thresholdsDTO.getMaxHumidity());
+        thresholds.setMaxExcursionMinutes(thresholdsDTO.getMaxExcursionMinutes());
+        thresholds.setMaxTemperatureChangePerMinute(thresholdsDTO.getMaxTemperatureChangePerMinute());
+        thresholds.setMaxDegreeMinutes(thresholdsDTO.getMaxDegreeMinutes());
+        thresholdsRepository.save(thresholds);
+        anomalyDetector.thresholdsChanged(productId);
+
+        return toThresholdsDTO(anomalyDetector.withDefaults(thresholds));
+    }
+
+    /**
+     * Individual readings of a product between two times, newest first.
+     * Longer ranges are served aggregated by EnvironmentalRollupService.getHistory.
+     * @param productId ID of the product
+     * @param from Start of the range, defaults to DEFAULT_CONDITION_RANGE before the end
+     * @param to End of the range, defaults to now
+     * @return Live and archived readings in the range
+     */
+    @Transactional(readOnly = true)
+    public List<ProductEnvironmentalConditionDTO> getProductEnvironmentalConditions(
+            Long productId, LocalDateTime from, LocalDateTime to) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(DEFAULT_CONDITION_RANGE);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (Duration.between(start, end).compareTo(MAX_CONDITION_RANGE) > 0) {
+            throw new IllegalArgumentException("Readings can only be listed for up to " +
+                    MAX_CONDITION_RANGE.toDays() + " days; use the environmental history for longer ranges");
+        }
+
+        List<ProductEnvironmentalConditionDTO> conditions = conditionRepository
+                .findByProductIdAndTimestampBetweenOrderByTimestamp(productId, start, end)
                 .stream()
                 .map(productMapper::toEnvironmentalConditionDTO)
                 .collect(Collectors.toList());
+
+        // Readings past the retention window live in the archive; only the days of the range are decoded
+        archiveRepository.findReadings(productId, start, end)
+                .forEach(reading -> conditions.add(productMapper.toEnvironmentalConditionDTO(productId, reading)));
+        conditions.sort(Comparator.comparing(ProductEnvironmentalConditionDTO::getTimestamp).reversed());
+        return conditions;
     }
 
+    /**
+     * Ranked full-text search; every word of the keyword matches as a prefix, so partial input finds results
+     * @param keyword Text typed by the user
+     * @param page Zero-based page number
+     * @param size Page size, capped at MAX_SEARCH_PAGE_SIZE
+     */
     @Transactional(readOnly = true)
-    public List<ProductDTO> searchProducts(String keyword) {
-        return productRepository.searchProducts(keyword)
+    public List<ProductDTO> searchProducts(String keyword, int page, int size) {
+        String query = toPrefixQuery(keyword);
+        if (query == null) {
+            return List.of();
+        }
+
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        return productRepository.searchProducts(query, pageable)
                 .stream()
                 .map(productMapper::toDTO)
                 .collect(Collectors.toList());
@@ -265,4 +384,41 @@ public class ProductService {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
         return prefix + "-" + timestamp;
     }
+
+    /**
+     * Turns free text into a tsquery matching every word as a prefix, e.g. "Organic tom" to "organic:* & tom:*"
+     * @return The query, or null if the text contains no searchable words
+     */
+    private static String toPrefixQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        StringJoiner query = new StringJoiner(" & ");
+        Matcher words = SEARCH_WORD.matcher(text.toLowerCase(Locale.ROOT));
+        while (words.find()) {
+            query.add(words.group() + ":*");
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    private static ConditionThresholdsDTO toThresholdsDTO(ConditionAnomalyDetector.Thresholds thresholds) {
+        return new ConditionThresholdsDTO(
+                thresholds.minTemperature(),
+                thresholds.maxTemperature(),
+                thresholds.minHumidity(),
+                thresholds.maxHumidity(),
+                thresholds.maxExcursionMinutes(),
+                thresholds.maxTemperatureChangePerMinute(),
+                thresholds.maxDegreeMinutes()
+        );
+    }
+
+    /**
+     * Evicts the cached public views of every batch of the product, since they embed product details
+     * @param productId ID of the changed product
+     */
+    private void evictPublicViews(Long productId) {
+        publicTrackingCache.evictAll(batchRepository.findBatchCodesByProductId(productId));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.config.CacheConfig;
+import com.food_supply_chain.exception.ResourceNotFoundException;
+import com.food_supply_chain.repository.BatchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Caches the public views of a batch and invalidates them whenever something they show changes: the cached
+ * responses are evicted and the batch's tracking version is incremented.
+ * Write paths only know the batch they touched, not which cached views include it, so they go through here
+ * instead of using {@code @CacheEvict}.
+ * Each entry carries the tracking version read before its payload was loaded, which the endpoints send as the
+ * ETag of that payload. An entry whose version was already superseded when it was stored is evicted again,
+ * so a load racing a commit cannot outlive the commit's own eviction.
+ * Versions and payloads are read in read-write transactions, which keeps them on the primary: a view read
+ * from a lagging replica would be cached under the primary's version and kept until it expires.
+ */
+@Component
+public class PublicTrackingCache {
+    private final BatchRepository batchRepository;
+    private final Map<String, Cache> caches;
+    private final TransactionTemplate primaryReads;
+
+    @Autowired
+    public PublicTrackingCache(BatchRepository batchRepository, CacheManager cacheManager,
+                               PlatformTransactionManager transactionManager) {
+        this.batchRepository = batchRepository;
+        this.primaryReads = new TransactionTemplate(transactionManager);
+        this.caches = Stream.of(
+                        CacheConfig.PUBLIC_JOURNEY_CACHE,
+                        CacheConfig.PUBLIC_BATCH_CACHE,
+                        CacheConfig.PUBLIC_TRACKING_CACHE)
+                .collect(Collectors.toMap(Function.identity(), cacheManager::getCache));
+    }
+
+    /**
+     * Returns the cached view of the batch, loading and caching it on a miss.
+     * Must be called outside a transaction, so that the entry is stored before its version is checked again.
+     * @param cacheName One of the public caches in {@link CacheConfig}
+     * @param batchCode Batch code printed on the QR label
+     * @param loader Reads the view from the database; the view is shared by all callers, so it must not be
+     * modified once loaded
+     * @return The cached entry
+     */
+    public <T> Versioned<T> get(String cacheName, String batchCode, Supplier<T> loader) {
+        Cache cache = cache(cacheName);
+
+        @SuppressWarnings("unchecked")
+        Versioned<T> entry = cache.get(batchCode, Versioned.class);
+        if (entry == null) {
+            // The version is read first: a payload loaded after a newer commit is only ever labelled too old,
+            // which costs one extra load, never too new. Read-only service methods called by the loader
+            // join this read-write transaction and so stay on the primary
+            entry = primaryReads.execute(status -> new Versioned<>(versionTag(batchCode), loader.get()));
+            cache.put(batchCode, entry);
+            String currentTag = primaryReads.execute(status -> batchRepository.findTrackingVersionTag(batchCode))
+                    .orElse(null);
+            if (!entry.versionTag().equals(currentTag)) {
+                cache.evict(batchCode);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Version the view would be served with now: that of the cached entry, or the batch's current tracking
+     * version when nothing is cached. Lets conditional requests be answered without loading the view.
+     * @param cacheName One of the public caches in {@link CacheConfig}
+     * @param batchCode Batch code printed on the QR label
+     * @throws ResourceNotFoundException If nothing is cached and the batch does not exist
+     */
+    public String currentVersionTag(String cacheName, String batchCode) {
+        Versioned<?> entry = cache(cacheName).get(batchCode, Versioned.class);
+        if (entry != null) {
+            return entry.versionTag();
+        }
+        return primaryReads.execute(status -> versionTag(batchCode));
+    }
+
+    /**
+     * Invalidates the public views of the batch; must run inside the transaction that changed it.
+     * Cache entries are evicted once that transaction commits, together with the new tracking version.
+     * @param batchCode Code of the changed batch
+     */
+    public void evict(String batchCode) {
+        evictAll(List.of(batchCode));
+    }
+
+    public void evictAll(Collection<String> batchCodes) {
+        if (batchCodes.isEmpty()) {
+            return;
+        }
+
+        batchRepository.incrementTrackingVersions(batchCodes);
+        for (String batchCode : batchCodes) {
+            for (Cache cache : caches.values()) {
+                cache.evict(batchCode);
+            }
+        }
+    }
+
+    private Cache cache(String cacheName) {
+        Cache cache = caches.get(cacheName);
+        if (cache == null) {
+            throw new IllegalArgumentException("Not a public tracking cache: " + cacheName);
+        }
+        return cache;
+    }
+
+    /**
+     * Returns a tag that changes whenever the public views of the batch change
+     * @param batchCode Batch code printed on the QR label
+     */
+    private String versionTag(String batchCode) {
+        return batchRepository.findTrackingVersionTag(batchCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Batch not found with code: " + batchCode));
+    }
+
+    /**
+     * A cached view together with the tracking version it was loaded at
+     * @param versionTag Tag returned by {@link #versionTag(String)} before the view was read
+     */
+    public record Versioned<T>(String versionTag, T value) {
+    }
+}
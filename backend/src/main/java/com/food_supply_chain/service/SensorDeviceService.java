@@ -0,0 +1,121 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.exception.DuplicateResourceException;
+import com.food_supply_chain.exception.ResourceNotFoundException;
+import com.food_supply_chain.model.SensorDevice;
+import com.food_supply_chain.model.dto.SensorDeviceDTO;
+import com.food_supply_chain.repository.ProductRepository;
+import com.food_supply_chain.repository.SensorDeviceRepository;
+import com.food_supply_chain.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Registry of the loggers that may upload readings, and the check the ingestion endpoint runs against it.
+ * A device uploads for the user who registered it, and only for its product when it was registered to one.
+ * Registrations are cached briefly per device ID, since every upload of a device checks the same one.
+ */
+@Service
+public class SensorDeviceService {
+    private final SensorDeviceRepository deviceRepository;
+    private final ProductRepository productRepository;
+    private final CurrentUserService currentUserService;
+    private final Cache<String, Registration> registrations;
+
+    @Autowired
+    public SensorDeviceService(
+            SensorDeviceRepository deviceRepository,
+            ProductRepository productRepository,
+            CurrentUserService currentUserService) {
+        this.deviceRepository = deviceRepository;
+        this.productRepository = productRepository;
+        this.currentUserService = currentUserService;
+        this.registrations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Transactional
+    public SensorDeviceDTO registerDevice(SensorDeviceDTO deviceDTO) {
+        if (deviceRepository.existsById(deviceDTO.getDeviceId())) {
+            throw new DuplicateResourceException("Device already registered: " + deviceDTO.getDeviceId());
+        }
+        if (deviceDTO.getProductId() != null && !productRepository.existsById(deviceDTO.getProductId())) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+
+        SensorDevice device = new SensorDevice();
+        device.setDeviceId(deviceDTO.getDeviceId());
+        device.setOwnerId(currentUserService.getPrincipal().id());
+        device.setProductId(deviceDTO.getProductId());
+        return toDTO(deviceRepository.save(device));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SensorDeviceDTO> getMyDevices() {
+        return deviceRepository.findByOwnerIdOrderByCreatedAt(currentUserService.getPrincipal().id()).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    @Transactional
+    public void removeDevice(String deviceId) {
+        SensorDevice device = deviceRepository.findById(deviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Device not found"));
+        if (!device.getOwnerId().equals(currentUserService.getPrincipal().id())) {
+            throw new AccessDeniedException("You can only remove your own devices");
+        }
+
+        deviceRepository.delete(device);
+        // Evicted once the delete is visible, so an upload running meanwhile cannot cache the registration again
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registrations.invalidate(deviceId);
+            }
+        });
+    }
+
+    /**
+     * Checks that a device may upload the given readings on behalf of the caller
+     * @param deviceId Device ID sent with the upload
+     * @param principal Authenticated caller
+     * @param productIds Products the uploaded readings belong to
+     * @throws AccessDeniedException If the device is not registered, belongs to another user,
+     * or is registered to a different product
+     */
+    public void requireUploadAllowed(String deviceId, UserPrincipal principal, Collection<Long> productIds) {
+        Registration registration = registrations.get(deviceId, id -> deviceRepository.findById(id)
+                .map(device -> new Registration(device.getOwnerId(), device.getProductId()))
+                .orElse(null));
+
+        if (registration == null) {
+            throw new AccessDeniedException("Device is not registered: " + deviceId);
+        }
+        if (!registration.ownerId().equals(principal.id())) {
+            throw new AccessDeniedException("Device " + deviceId + " belongs to another user");
+        }
+        if (registration.productId() != null && productIds.stream().anyMatch(id -> !registration.productId().equals(id))) {
+            throw new AccessDeniedException("Device " + deviceId + " only records readings of product " +
+                    registration.productId());
+        }
+    }
+
+    private SensorDeviceDTO toDTO(SensorDevice device) {
+        return new SensorDeviceDTO(device.getDeviceId(), device.getProductId(), device.getCreatedAt());
+    }
+
+    private record Registration(Long ownerId, Long productId) {
+    }
+}
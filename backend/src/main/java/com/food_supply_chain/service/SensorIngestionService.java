@@ -0,0 +1,253 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.exception.IngestionOverloadedException;
+import com.food_supply_chain.exception.ResourceNotFoundException;
+import com.food_supply_chain.model.SensorReading;
+import com.food_supply_chain.model.dto.SensorIngestResultDTO;
+import com.food_supply_chain.model.dto.SensorReadingBatchDTO;
+import com.food_supply_chain.model.dto.SensorReadingDTO;
+import com.food_supply_chain.repository.ProductRepository;
+import com.food_supply_chain.repository.SensorReadingBulkRepository;
+import com.food_supply_chain.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Accepts batched readings from cold-chain loggers into a bounded in-memory buffer and writes them
+ * from a single background worker in large multi-row inserts.
+ * A request is accepted whole or not at all: when the buffer cannot take all of its readings the
+ * request is rejected with a retry hint, so devices back off and resend instead of losing data.
+ * Public product views are not invalidated per reading; they pick up new readings when their cache entries expire.
+ * A chunk that fails to insert is retried with backoff and then parked in sensor_reading_dead_letters,
+ * since its readings were already acknowledged; only if that fails too are they lost, counted and logged.
+ */
+@Service
+public class SensorIngestionService {
+    private static final Logger log = LoggerFactory.getLogger(SensorIngestionService.class);
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final ProductRepository productRepository;
+    private final SensorReadingBulkRepository sensorReadingBulkRepository;
+    private final CurrentUserService currentUserService;
+    private final SensorDeviceService sensorDeviceService;
+    private final ConditionAnomalyDetector anomalyDetector;
+    private final BlockingQueue<SensorReading> buffer;
+    // Free buffer slots; taken when a request is accepted and returned once its readings are written
+    private final Semaphore capacity;
+    private final int batchSize;
+    private final int writeAttempts;
+    private final Duration retryBackoff;
+    private final ExecutorService executor;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final Cache<Long, Boolean> knownProducts;
+    private final Counter acceptedReadings;
+    private final Counter rejectedReadings;
+    private final Counter writtenReadings;
+    private final Counter deadLetteredReadings;
+    private final Counter failedReadings;
+
+    @Autowired
+    public SensorIngestionService(
+            ProductRepository productRepository,
+            SensorReadingBulkRepository sensorReadingBulkRepository,
+            CurrentUserService currentUserService,
+            SensorDeviceService sensorDeviceService,
+            ConditionAnomalyDetector anomalyDetector,
+            MeterRegistry meterRegistry,
+            @Value("${sensors.ingest.buffer-capacity:200000}") int bufferCapacity,
+            @Value("${sensors.ingest.batch-size:5000}") int batchSize,
+            @Value("${sensors.ingest.write-attempts:3}") int writeAttempts,
+            @Value("${sensors.ingest.retry-backoff-ms:500}") long retryBackoffMillis) {
+        this.productRepository = productRepository;
+        this.sensorReadingBulkRepository = sensorReadingBulkRepository;
+        this.currentUserService = currentUserService;
+        this.sensorDeviceService = sensorDeviceService;
+        this.anomalyDetector = anomalyDetector;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.capacity = new Semaphore(bufferCapacity);
+        this.batchSize = batchSize;
+        this.writeAttempts = Math.max(writeAttempts, 1);
+        this.retryBackoff = Duration.ofMillis(retryBackoffMillis);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sensor-ingestion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.knownProducts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .maximumSize(100_000)
+                .build();
+
+        this.acceptedReadings = meterRegistry.counter("sensors.readings", "outcome", "accepted");
+        this.rejectedReadings = meterRegistry.counter("sensors.readings", "outcome", "rejected");
+        this.writtenReadings = meterRegistry.counter("sensors.readings", "outcome", "written");
+        this.deadLetteredReadings = meterRegistry.counter("sensors.readings", "outcome", "dead_lettered");
+        this.failedReadings = meterRegistry.counter("sensors.readings", "outcome", "failed");
+        Gauge.builder("sensors.buffer.size", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Queues the readings of one upload for storage
+     * @param batch Readings of one device
+     * @return Number of readings accepted and the current buffer size
+     * @throws IngestionOverloadedException If the buffer cannot take every reading of the upload
+     * @throws org.springframework.security.access.AccessDeniedException If the device is not registered
+     * to the caller, or not for these products
+     */
+    public SensorIngestResultDTO submit(SensorReadingBatchDTO batch) {
+        List<SensorReadingDTO> readings = batch.getReadings();
+        Set<Long> productIds = requireKnownProducts(readings);
+        UserPrincipal principal = currentUserService.getPrincipal();
+        if (batch.getDeviceId() != null) {
+            sensorDeviceService.requireUploadAllowed(batch.getDeviceId(), principal, productIds);
+        }
+
+        if (!capacity.tryAcquire(readings.size())) {
+            rejectedReadings.increment(readings.size());
+            throw new IngestionOverloadedException(
+                    "Sensor ingestion buffer is full, retry in " + RETRY_AFTER_SECONDS + " seconds", RETRY_AFTER_SECONDS);
+        }
+
+        String recordedBy = batch.getDeviceId() != null ? batch.getDeviceId() : principal.username();
+        LocalDateTime receivedAt = LocalDateTime.now();
+        for (SensorReadingDTO dto : readings) {
+            SensorReading reading = new SensorReading(
+                    dto.getProductId(),
+                    dto.getTimestamp() != null ? dto.getTimestamp() : receivedAt,
+                    dto.getTemperature(),
+                    dto.getHumidity(),
+                    recordedBy,
+                    batch.getLocation());
+            // Cannot fail, the slots were reserved above
+            buffer.add(reading);
+            // Rules run on the request thread, so breaches are notified without waiting for the write
+            anomalyDetector.evaluate(reading.productId(), reading.timestamp(), reading.temperature(),
+                    reading.humidity(), principal.id());
+        }
+        acceptedReadings.increment(readings.size());
+        scheduleDrain();
+
+        return new SensorIngestResultDTO(readings.size(), buffer.size());
+    }
+
+    // Rejects the upload up front, since one unknown product would make the whole multi-row insert fail
+    private Set<Long> requireKnownProducts(List<SensorReadingDTO> readings) {
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> unknown = new HashSet<>();
+        for (SensorReadingDTO reading : readings) {
+            productIds.add(reading.getProductId());
+            if (knownProducts.getIfPresent(reading.getProductId()) == null) {
+                unknown.add(reading.getProductId());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return productIds;
+        }
+
+        for (Long productId : productRepository.findExistingIds(unknown)) {
+            knownProducts.put(productId, Boolean.TRUE);
+            unknown.remove(productId);
+        }
+        if (!unknown.isEmpty()) {
+            throw new ResourceNotFoundException("Product not found: " + unknown);
+        }
+        return productIds;
+    }
+
+    private void scheduleDrain() {
+        if (!buffer.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            List<SensorReading> chunk = new ArrayList<>(batchSize);
+            while (buffer.drainTo(chunk, batchSize) > 0) {
+                write(chunk);
+                capacity.release(chunk.size());
+                chunk.clear();
+            }
+        } finally {
+            drainScheduled.set(false);
+            // Pick up anything queued while this run was finishing
+            scheduleDrain();
+        }
+    }
+
+    private void write(List<SensorReading> readings) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= writeAttempts; attempt++) {
+            try {
+                writtenReadings.increment(sensorReadingBulkRepository.insertAll(readings));
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("Failed to write {} sensor readings (attempt {} of {})",
+                        readings.size(), attempt, writeAttempts, e);
+            }
+            // Holding the chunk keeps its buffer slots taken, so uploads are rejected while the database is failing
+            if (attempt < writeAttempts && !backOff(retryBackoff.multipliedBy(1L << (attempt - 1)))) {
+                break;
+            }
+        }
+        deadLetter(readings, failure);
+    }
+
+    private void deadLetter(List<SensorReading> readings, RuntimeException failure) {
+        try {
+            sensorReadingBulkRepository.deadLetterAll(readings, String.valueOf(failure));
+            deadLetteredReadings.increment(readings.size());
+            log.error("Moved {} sensor readings to sensor_reading_dead_letters", readings.size(), failure);
+        } catch (RuntimeException e) {
+            failedReadings.increment(readings.size());
+            // The readings were acknowledged, so the log is the last place they can be recovered from
+            log.error("Lost {} sensor readings: {}", readings.size(), readings, e);
+        }
+    }
+
+    private static boolean backOff(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<SensorReading> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+}
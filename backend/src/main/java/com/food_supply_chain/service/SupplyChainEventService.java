@@ -1,63 +1,104 @@
 package com.food_supply_chain.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.food_supply_chain.exception.ResourceNotFoundException;
 import com.food_supply_chain.mapper.SupplyChainEventMapper;
 import com.food_supply_chain.model.Batch;
 import com.food_supply_chain.model.SupplyChainEvent;
 import com.food_supply_chain.model.User;
+import com.food_supply_chain.model.dto.BulkEventResultDTO;
+import com.food_supply_chain.model.dto.CursorPageDTO;
 import com.food_supply_chain.model.dto.SupplyChainEventDTO;
 import com.food_supply_chain.repository.BatchRepository;
+import com.food_supply_chain.repository.SupplyChainEventBulkRepository;
 import com.food_supply_chain.repository.SupplyChainEventRepository;
+import com.food_supply_chain.repository.SupplyChainEventRow;
 import com.food_supply_chain.repository.UserRepository;
+import com.food_supply_chain.util.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SupplyChainEventService {
+    private static final int MAX_BULK_EVENTS = 5000;
+    private static final int MAX_ADDITIONAL_DATA_PAGE_SIZE = 100;
+
     private final SupplyChainEventRepository eventRepository;
+    private final SupplyChainEventBulkRepository eventBulkRepository;
     private final BatchRepository batchRepository;
     private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final SupplyChainEventMapper eventMapper;
     private final NotificationService notificationService;
+    private final PublicTrackingCache publicTrackingCache;
+    private final BatchStatisticsService batchStatisticsService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter exportWriter;
 
     @Autowired
     public SupplyChainEventService(
             SupplyChainEventRepository eventRepository,
+            SupplyChainEventBulkRepository eventBulkRepository,
             BatchRepository batchRepository,
             UserRepository userRepository,
+            CurrentUserService currentUserService,
             SupplyChainEventMapper eventMapper,
-            NotificationService notificationService) {
+            NotificationService notificationService,
+            PublicTrackingCache publicTrackingCache,
+            BatchStatisticsService batchStatisticsService,
+            ObjectMapper objectMapper) {
         this.eventRepository = eventRepository;
+        this.eventBulkRepository = eventBulkRepository;
         this.batchRepository = batchRepository;
         this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
         this.eventMapper = eventMapper;
         this.notificationService = notificationService;
+        this.publicTrackingCache = publicTrackingCache;
+        this.batchStatisticsService = batchStatisticsService;
+        this.objectMapper = objectMapper;
+        this.exportWriter = exportWriter(objectMapper);
     }
 
     @Transactional
     public SupplyChainEventDTO createEvent(SupplyChainEventDTO eventDTO) {
         // Get the current user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User initiatedBy = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User initiatedBy = currentUserService.getCurrentUserReference();
 
         // Get the batch
+        // Locked, so a concurrent status change of this batch cannot read the same old status for the counters
         Batch batch = null;
         if (eventDTO.getBatchId() != null) {
-            batch = batchRepository.findById(eventDTO.getBatchId())
+            batch = batchRepository.findByIdForUpdate(eventDTO.getBatchId())
                     .orElseThrow(() -> new ResourceNotFoundException("Batch not found"));
         } else if (eventDTO.getBatchCode() != null && !eventDTO.getBatchCode().isEmpty()) {
-            batch = batchRepository.findByBatchCode(eventDTO.getBatchCode())
+            batch = batchRepository.findByBatchCodeForUpdate(eventDTO.getBatchCode())
                     .orElseThrow(() -> new ResourceNotFoundException("Batch not found with code: " + eventDTO.getBatchCode()));
         } else {
             throw new IllegalArgumentException("Either batchId or batchCode must be provided");
@@ -81,61 +122,164 @@ public class SupplyChainEventService {
 
         // Update batch status based on event type (if applicable)
         updateBatchStatus(batch, event.getEventType());
+        publicTrackingCache.evict(batch.getBatchCode());
 
-        // Notify relevant parties about the event
-        notificationService.createEventNotification(
-                savedEvent,
-                "A new " + event.getEventType() + " event has been created for batch " + batch.getBatchCode()
-        );
+        // Notify relevant parties about the event and any status change
+        notifyEventParties(savedEvent, batch, oldStatus, userRepository::findByRole);
 
-        // Notify about batch status change if it changed
-        if (oldStatus != batch.getStatus()) {
-            List<User> usersToNotify = new ArrayList<>();
-            usersToNotify.add(batch.getCreatedBy()); // Always notify the creator
+        return eventMapper.toDTO(savedEvent);
+    }
 
-            // For certain status changes, notify other users
-            if (batch.getStatus() == Batch.BatchStatus.IN_TRANSIT ||
-                    batch.getStatus() == Batch.BatchStatus.DELIVERED) {
-                // Find distributors in the same geographic area
-                // This is a simplified approach - in a real application, you would have more
-                // sophisticated logic to determine which users should be notified
-                List<User> distributors = userRepository.findByRole(User.Role.DISTRIBUTOR);
-                usersToNotify.addAll(distributors);
-            }
+    /**
+     * Checks a bulk item before it is resolved, so a malformed item is reported in its own result
+     * instead of failing the whole request
+     * @throws IllegalArgumentException If the item is null or its event type is missing or unknown
+     */
+    private static void validateBulkItem(SupplyChainEventDTO eventDTO) {
+        if (eventDTO == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        String eventType = eventDTO.getEventType();
+        if (eventType == null || eventType.isBlank()) {
+            throw new IllegalArgumentException("eventType is required");
+        }
+        try {
+            SupplyChainEvent.EventType.valueOf(eventType);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown event type: " + eventType);
+        }
+    }
 
-            if (batch.getStatus() == Batch.BatchStatus.AT_RETAILER) {
-                // Notify retailers
-                List<User> retailers = userRepository.findByRole(User.Role.RETAILER);
-                usersToNotify.addAll(retailers);
+    @Transactional
+    public List<BulkEventResultDTO> createEvents(List<SupplyChainEventDTO> eventDTOs) {
+        if (eventDTOs == null || eventDTOs.isEmpty()) {
+            throw new IllegalArgumentException("At least one event must be provided");
+        }
+        if (eventDTOs.size() > MAX_BULK_EVENTS) {
+            throw new IllegalArgumentException("A bulk request can contain at most " + MAX_BULK_EVENTS + " events");
+        }
+
+        // Get the current user
+        User initiatedBy = currentUserService.getCurrentUserReference();
+
+        // Resolve every referenced batch and receiver with one query each
+        Set<Long> batchIds = new HashSet<>();
+        Set<String> batchCodes = new HashSet<>();
+        Set<String> receiverUsernames = new HashSet<>();
+        for (SupplyChainEventDTO eventDTO : eventDTOs) {
+            if (eventDTO == null) {
+                continue;
             }
+            if (eventDTO.getBatchId() != null) {
+                batchIds.add(eventDTO.getBatchId());
+            } else if (eventDTO.getBatchCode() != null && !eventDTO.getBatchCode().isEmpty()) {
+                batchCodes.add(eventDTO.getBatchCode());
+            }
+            if (eventDTO.getReceivedByUsername() != null && !eventDTO.getReceivedByUsername().isEmpty()) {
+                receiverUsernames.add(eventDTO.getReceivedByUsername());
+            }
+        }
 
-            notificationService.createBatchStatusNotification(
-                    batch.getId(),
-                    batch.getBatchCode(),
-                    oldStatus.name(),
-                    batch.getStatus().name(),
-                    usersToNotify
-            );
+        // Codes are resolved to IDs first so that all batches are locked by one query, in ID order;
+        // the lock keeps concurrent status changes of a batch from reading the same old status
+        Set<Long> lockedIds = new HashSet<>(batchIds);
+        if (!batchCodes.isEmpty()) {
+            lockedIds.addAll(batchRepository.findIdsByBatchCodeIn(batchCodes));
+        }
+        Map<Long, Batch> batchesById = new HashMap<>();
+        Map<String, Batch> batchesByCode = new HashMap<>();
+        if (!lockedIds.isEmpty()) {
+            batchRepository.findAllByIdForUpdate(lockedIds).forEach(batch -> {
+                batchesById.put(batch.getId(), batch);
+                batchesByCode.put(batch.getBatchCode(), batch);
+            });
         }
 
-        // Check for quality issues
-        if (event.getEventType() == SupplyChainEvent.EventType.QUALITY_CHECKED) {
-            // This is a simplified approach - in a real application, you would have
-            // more sophisticated logic to determine if there are quality issues
-            if (event.getNotes() != null && event.getNotes().toLowerCase().contains("issue")) {
-                List<User> usersToNotify = new ArrayList<>();
-                usersToNotify.add(batch.getCreatedBy());
+        Map<String, User> receiversByUsername = new HashMap<>();
+        if (!receiverUsernames.isEmpty()) {
+            userRepository.findByUsernameIn(receiverUsernames).forEach(user -> receiversByUsername.put(user.getUsername(), user));
+        }
 
-                notificationService.createQualityIssueNotification(
-                        batch.getId(),
-                        batch.getBatchCode(),
-                        event.getNotes(),
-                        usersToNotify
-                );
+        // Build the events, recording a failure for any item that cannot be resolved
+        List<BulkEventResultDTO> results = new ArrayList<>(eventDTOs.size());
+        List<SupplyChainEvent> events = new ArrayList<>();
+        List<Integer> eventIndexes = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < eventDTOs.size(); i++) {
+            SupplyChainEventDTO eventDTO = eventDTOs.get(i);
+            try {
+                validateBulkItem(eventDTO);
+
+                Batch batch;
+                if (eventDTO.getBatchId() != null) {
+                    batch = batchesById.get(eventDTO.getBatchId());
+                    if (batch == null) {
+                        throw new ResourceNotFoundException("Batch not found");
+                    }
+                } else if (eventDTO.getBatchCode() != null && !eventDTO.getBatchCode().isEmpty()) {
+                    batch = batchesByCode.get(eventDTO.getBatchCode());
+                    if (batch == null) {
+                        throw new ResourceNotFoundException("Batch not found with code: " + eventDTO.getBatchCode());
+                    }
+                } else {
+                    throw new IllegalArgumentException("Either batchId or batchCode must be provided");
+                }
+
+                User receivedBy = null;
+                if (eventDTO.getReceivedByUsername() != null && !eventDTO.getReceivedByUsername().isEmpty()) {
+                    receivedBy = receiversByUsername.get(eventDTO.getReceivedByUsername());
+                    if (receivedBy == null) {
+                        throw new ResourceNotFoundException("Receiving user not found");
+                    }
+                }
+
+                SupplyChainEvent event = eventMapper.toEntity(eventDTO, batch, initiatedBy, receivedBy);
+                event.setId(null);
+                event.setTimestamp(now); // Same as the @PrePersist callback on the single-event path
+
+                events.add(event);
+                eventIndexes.add(i);
+                results.add(null);
+            } catch (ResourceNotFoundException | IllegalArgumentException e) {
+                results.add(new BulkEventResultDTO(i, false, null, e.getMessage()));
             }
         }
 
-        return eventMapper.toDTO(savedEvent);
+        // Write all accepted events with JDBC batching
+        eventBulkRepository.insertAll(events);
+
+        // Apply status changes in submission order; dirty batches are flushed as batched updates on commit
+        Map<User.Role, List<User>> usersByRole = new EnumMap<>(User.Role.class);
+        Set<String> touchedBatchCodes = new HashSet<>();
+        // Status of each batch before this request; batches are managed instances, so identity is enough
+        Map<Batch, Batch.BatchStatus> originalStatuses = new IdentityHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            SupplyChainEvent event = events.get(i);
+            Batch batch = event.getBatch();
+            touchedBatchCodes.add(batch.getBatchCode());
+
+            Batch.BatchStatus oldStatus = batch.getStatus();
+            originalStatuses.putIfAbsent(batch, oldStatus);
+            Batch.BatchStatus newStatus = statusForEventType(event.getEventType());
+            if (newStatus != null) {
+                batch.setStatus(newStatus);
+            }
+
+            notifyEventParties(event, batch, oldStatus,
+                    role -> usersByRole.computeIfAbsent(role, userRepository::findByRole));
+
+            int index = eventIndexes.get(i);
+            results.set(index, new BulkEventResultDTO(index, true, eventMapper.toDTO(event), null));
+        }
+
+        List<BatchStatisticsService.StatusChange> statusChanges = new ArrayList<>(originalStatuses.size());
+        originalStatuses.forEach((batch, oldStatus) -> statusChanges.add(BatchStatisticsService.StatusChange.of(batch, oldStatus)));
+        batchStatisticsService.recordStatusChanges(statusChanges);
+
+        publicTrackingCache.evictAll(touchedBatchCodes);
+
+        return results;
     }
 
     @Transactional(readOnly = true)
@@ -156,6 +300,15 @@ public class SupplyChainEventService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SupplyChainEventDTO> getEventsByBatch(Long batchId, String cursor, int size) {
+        Batch batch = batchRepository.findById(batchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Batch not found"));
+
+        return toEventPage(eventRepository.findByBatchOrderByTimestampDescIdDesc(
+                batch, decodeEventCursor(cursor), CursorCodec.limit(size)));
+    }
+
     @Transactional(readOnly = true)
     public List<SupplyChainEventDTO> getEventsByBatchCode(String batchCode) {
         Batch batch = batchRepository.findByBatchCode(batchCode)
@@ -175,6 +328,12 @@ public class SupplyChainEventService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SupplyChainEventDTO> getEventsByProductId(Long productId, String cursor, int size) {
+        return toEventPage(eventRepository.findByBatchProductIdOrderByTimestampDescIdDesc(
+                productId, decodeEventCursor(cursor), CursorCodec.limit(size)));
+    }
+
     @Transactional(readOnly = true)
     public List<SupplyChainEventDTO> getEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return eventRepository.findByDateRange(startDate, endDate)
@@ -183,6 +342,77 @@ public class SupplyChainEventService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SupplyChainEventDTO> getEventsByDateRange(
+            LocalDateTime startDate, LocalDateTime endDate, String cursor, int size) {
+        return toEventPage(eventRepository.findByTimestampBetweenOrderByTimestampDescIdDesc(
+                startDate, endDate, decodeEventCursor(cursor), CursorCodec.limit(size)));
+    }
+
+    /**
+     * Writes all events of a date range to the output as newline-delimited JSON, oldest first.
+     * Rows are read through a database cursor and written one at a time, so memory use does not
+     * depend on the size of the range.
+     * @param startDate Start of the range, inclusive
+     * @param endDate End of the range, inclusive
+     * @param out Destination stream; left open
+     */
+    @Transactional(readOnly = true)
+    public void exportEventsByDateRange(LocalDateTime startDate, LocalDateTime endDate, OutputStream out)
+            throws IOException {
+        try (Stream<SupplyChainEventRow> rows = eventRepository.streamByDateRange(startDate, endDate)) {
+            writeLines(exportWriter, rows.map(eventMapper::toDTO), out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writer of the export: one event per line, buffered instead of flushed after every event
+     */
+    static ObjectWriter exportWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(SupplyChainEventDTO.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes events to the output as newline-delimited JSON
+     * @param writer Writer created by exportWriter
+     * @param events Events in output order
+     * @param out Destination stream; left open
+     */
+    static void writeLines(ObjectWriter writer, Stream<SupplyChainEventDTO> events, OutputStream out)
+            throws IOException {
+        // Closing the generator flushes what it still buffers; closing the sequence writer alone does not
+        try (JsonGenerator generator = writer.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             SequenceWriter sequence = writer.writeValues(generator)) {
+            for (SupplyChainEventDTO event : (Iterable<SupplyChainEventDTO>) events::iterator) {
+                sequence.write(event);
+            }
+        }
+    }
+
+    /**
+     * Events with the given key and value in their additional data, newest first
+     * @param key Additional data field, e.g. a sensor id or reading name
+     * @param value Exact value of the field
+     * @param page Zero-based page number
+     * @param size Page size, capped at MAX_ADDITIONAL_DATA_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public Page<SupplyChainEventDTO> getEventsByAdditionalData(String key, String value, int page, int size) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Additional data key is required");
+        }
+
+        // Built with Jackson so that the key and value are always escaped into a single JSON object
+        String filter = objectMapper.createObjectNode().put(key, value).toString();
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_ADDITIONAL_DATA_PAGE_SIZE));
+        return eventRepository.findByAdditionalDataContaining(filter, pageable)
+                .map(eventMapper::toDTO);
+    }
+
     @Transactional(readOnly = true)
     public Page<SupplyChainEventDTO> getEventsByUserInvolved(Long userId, Pageable pageable) {
         return eventRepository.findByUserInvolved(userId, pageable)
@@ -191,9 +421,7 @@ public class SupplyChainEventService {
 
     @Transactional(readOnly = true)
     public List<SupplyChainEventDTO> getEventsByCurrentUser(User.Role role) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserService.getCurrentUserReference();
 
         // Depending on the role, get events where the user is initiator or receiver
         if (role == User.Role.FARMER || role == User.Role.ADMIN) {
@@ -217,8 +445,7 @@ public class SupplyChainEventService {
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
 
         // Verify current user has permission to update this event
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        if (!existingEvent.getInitiatedBy().getUsername().equals(username)) {
+        if (!existingEvent.getInitiatedBy().getId().equals(currentUserService.getPrincipal().id())) {
             throw new AccessDeniedException("You can only update events you initiated");
         }
 
@@ -248,10 +475,13 @@ public class SupplyChainEventService {
         }
 
         if (eventDTO.getAdditionalData() != null) {
-            existingEvent.setAdditionalDataMap(eventDTO.getAdditionalData());
+            existingEvent.setAdditionalData(eventMapper.copyAdditionalData(eventDTO.getAdditionalData()));
         }
 
         SupplyChainEvent updatedEvent = eventRepository.save(existingEvent);
+        if (existingEvent.getBatch() != null) {
+            publicTrackingCache.evict(existingEvent.getBatch().getBatchCode());
+        }
 
         // Check for quality issues in updated event
         if (existingEvent.getEventType() == SupplyChainEvent.EventType.QUALITY_CHECKED) {
@@ -271,46 +501,101 @@ public class SupplyChainEventService {
         return eventMapper.toDTO(updatedEvent);
     }
 
+    private ScrollPosition decodeEventCursor(String cursor) {
+        return CursorCodec.decode(cursor, "timestamp", LocalDateTime::parse);
+    }
+
+    private CursorPageDTO<SupplyChainEventDTO> toEventPage(Window<SupplyChainEvent> window) {
+        return CursorCodec.toPage(window, eventMapper::toDTO,
+                event -> CursorCodec.encode(event.getTimestamp(), event.getId()));
+    }
+
     private void updateBatchStatus(Batch batch, SupplyChainEvent.EventType eventType) {
-        // Map event types to batch statuses
-        Batch.BatchStatus oldStatus = batch.getStatus();
+        Batch.BatchStatus newStatus = statusForEventType(eventType);
+
+        // Only save if status changed
+        if (newStatus != null && batch.getStatus() != newStatus) {
+            Batch.BatchStatus oldStatus = batch.getStatus();
+            batch.setStatus(newStatus);
+            batchRepository.save(batch);
+            batchStatisticsService.recordStatusChange(batch, oldStatus);
+        }
+    }
 
+    private Batch.BatchStatus statusForEventType(SupplyChainEvent.EventType eventType) {
+        // Map event types to batch statuses
         switch (eventType) {
             case HARVESTED:
-                batch.setStatus(Batch.BatchStatus.HARVESTED);
-                break;
-            case PACKAGED:
-                // No direct mapping, keep current status
-                break;
-            case QUALITY_CHECKED:
-                // No direct mapping, keep current status
-                break;
+                return Batch.BatchStatus.HARVESTED;
             case STORED:
-                batch.setStatus(Batch.BatchStatus.IN_STORAGE);
-                break;
+                return Batch.BatchStatus.IN_STORAGE;
             case SHIPPED:
-                batch.setStatus(Batch.BatchStatus.IN_TRANSIT);
-                break;
+                return Batch.BatchStatus.IN_TRANSIT;
             case RECEIVED:
-                batch.setStatus(Batch.BatchStatus.DELIVERED);
-                break;
+                return Batch.BatchStatus.DELIVERED;
             case DELIVERED_TO_RETAILER:
-                batch.setStatus(Batch.BatchStatus.AT_RETAILER);
-                break;
+                return Batch.BatchStatus.AT_RETAILER;
             case SOLD:
-                batch.setStatus(Batch.BatchStatus.SOLD);
-                break;
+                return Batch.BatchStatus.SOLD;
             case RECALLED:
-                batch.setStatus(Batch.BatchStatus.RECALLED);
-                break;
+                return Batch.BatchStatus.RECALLED;
             default:
-                // For other event types, don't change batch status
-                return;
+                // For other event types (e.g. PACKAGED, QUALITY_CHECKED), don't change batch status
+                return null;
         }
+    }
 
-        // Only save if status changed
+    private void notifyEventParties(SupplyChainEvent event, Batch batch, Batch.BatchStatus oldStatus,
+                                    Function<User.Role, List<User>> usersByRole) {
+        // Notify relevant parties about the event
+        notificationService.createEventNotification(
+                event,
+                "A new " + event.getEventType() + " event has been created for batch " + batch.getBatchCode()
+        );
+
+        // Notify about batch status change if it changed
         if (oldStatus != batch.getStatus()) {
-            batchRepository.save(batch);
+            List<User> usersToNotify = new ArrayList<>();
+            usersToNotify.add(batch.getCreatedBy()); // Always notify the creator
+
+            // For certain status changes, notify other users
+            if (batch.getStatus() == Batch.BatchStatus.IN_TRANSIT ||
+                    batch.getStatus() == Batch.BatchStatus.DELIVERED) {
+                // Find distributors in the same geographic area
+                // This is a simplified approach - in a real application, you would have more
+                // sophisticated logic to determine which users should be notified
+                usersToNotify.addAll(usersByRole.apply(User.Role.DISTRIBUTOR));
+            }
+
+            if (batch.getStatus() == Batch.BatchStatus.AT_RETAILER) {
+                // Notify retailers
+                usersToNotify.addAll(usersByRole.apply(User.Role.RETAILER));
+            }
+
+            notificationService.createBatchStatusNotification(
+                    batch.getId(),
+                    batch.getBatchCode(),
+                    oldStatus.name(),
+                    batch.getStatus().name(),
+                    usersToNotify
+            );
+        }
+
+        // Check for quality issues
+        if (event.getEventType() == SupplyChainEvent.EventType.QUALITY_CHECKED) {
+            // This is a simplified approach - in a real application, you would have
+            // more sophisticated logic to determine if there are quality issues
+            if (event.getNotes() != null && event.getNotes().toLowerCase().contains("issue")) {
+                List<User> usersToNotify = new ArrayList<>();
+                usersToNotify.add(batch.getCreatedBy());
+
+                notificationService.createQualityIssueNotification(
+                        batch.getId(),
+                        batch.getBatchCode(),
+                        event.getNotes(),
+                        usersToNotify
+                );
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,247 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.exception.ResourceNotFoundException;
+import com.food_supply_chain.mapper.SupplyChainEventMapper;
+import com.food_supply_chain.model.dto.BatchDTO;
+import com.food_supply_chain.model.dto.BatchEventDTO;
+import com.food_supply_chain.model.dto.ProductDTO;
+import com.food_supply_chain.model.dto.SupplyChainEventDTO;
+import com.food_supply_chain.model.dto.TrackingDTO;
+import com.food_supply_chain.repository.BatchRepository;
+import com.food_supply_chain.repository.TrackingRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read model behind the public journey and tracking endpoints hit by consumer QR scans.
+ * For tracking, the batch, its product and all of its events are read with one projection query,
+ * without loading entities or their lazy collections.
+ * The public controllers cache these views per batch code through {@link PublicTrackingCache} and hand the
+ * cached instances to every request, so the views are built with unmodifiable collections.
+ */
+@Service
+public class TrackingService {
+    private final BatchRepository batchRepository;
+    private final BatchService batchService;
+    private final ProductService productService;
+    private final SupplyChainEventMapper eventMapper;
+
+    @Autowired
+    public TrackingService(
+            BatchRepository batchRepository,
+            BatchService batchService,
+            ProductService productService,
+            SupplyChainEventMapper eventMapper) {
+        this.batchRepository = batchRepository;
+        this.batchService = batchService;
+        this.productService = productService;
+        this.eventMapper = eventMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getJourney(String batchCode) {
+        try {
+            BatchDTO batch = batchService.getBatchByCode(batchCode);
+            ProductDTO product = productService.getProduct(batch.getProductId());
+            List<BatchEventDTO> events = batchService.getBatchEvents(batch.getId());
+
+            return Map.of("batch", readOnly(batch), "product", readOnly(product), "events", List.copyOf(events));
+        } catch (ResourceNotFoundException e) {
+            throw new ResourceNotFoundException("No journey found for batch code: " + batchCode);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public TrackingDTO getTracking(String batchCode) {
+        List<TrackingRow> rows = findRows(batchCode);
+        TrackingRow first = rows.get(0);
+
+        List<SupplyChainEventDTO> events = toEvents(rows);
+        return new TrackingDTO(toBatch(first), toProduct(first), readOnlyEvents(events),
+                Collections.unmodifiableMap(calculateMetrics(events)));
+    }
+
+    /**
+     * Batch view served to QR scans, with the same read-only collections as the journey and tracking views
+     */
+    @Transactional(readOnly = true)
+    public BatchDTO getPublicBatch(String batchCode) {
+        return readOnly(batchService.getBatchByCode(batchCode));
+    }
+
+    /**
+     * Calculates journey metrics in a single pass over the events
+     * @param events Events of one batch, newest first
+     * @return Metrics keyed by name; optional metrics are absent when the events needed for them are missing
+     */
+    public Map<String, Object> calculateMetrics(List<SupplyChainEventDTO> events) {
+        Map<String, Object> metrics = new HashMap<>();
+
+        if (events.isEmpty()) {
+            return metrics;
+        }
+
+        // Events are newest first, so the first match of each type is the most recent one
+        LocalDateTime harvestedAt = null;
+        LocalDateTime shippedAt = null;
+        LocalDateTime receivedAt = null;
+        long qualityChecks = 0;
+
+        for (SupplyChainEventDTO event : events) {
+            String type = event.getEventType();
+            if ("HARVESTED".equals(type)) {
+                if (harvestedAt == null) {
+                    harvestedAt = event.getTimestamp();
+                }
+            } else if ("SHIPPED".equals(type)) {
+                if (shippedAt == null) {
+                    shippedAt = event.getTimestamp();
+                }
+            } else if ("RECEIVED".equals(type)) {
+                if (receivedAt == null) {
+                    receivedAt = event.getTimestamp();
+                }
+            } else if ("QUALITY_CHECKED".equals(type)) {
+                qualityChecks++;
+            }
+        }
+
+        if (harvestedAt != null) {
+            metrics.put("daysSinceHarvest", Duration.between(harvestedAt, LocalDateTime.now()).toDays());
+        }
+
+        if (shippedAt != null && receivedAt != null) {
+            metrics.put("hoursInTransit", Duration.between(shippedAt, receivedAt).toHours());
+        }
+
+        metrics.put("qualityChecks", qualityChecks);
+        metrics.put("estimatedCarbonFootprint", calculateEstimatedCarbonFootprint(events.size()));
+
+        return metrics;
+    }
+
+    /**
+     * Simplified carbon footprint calculation based on the number of supply chain steps
+     */
+    private double calculateEstimatedCarbonFootprint(int eventCount) {
+        double baseCarbonFootprint = 10.0; // Base carbon footprint in kg CO2
+
+        // This is a simplified placeholder calculation
+        // In a real implementation, you would consider:
+        // - Distance between locations (which would require geocoding)
+        // - Type of transport used
+        // - Energy efficiency of storage
+        // - Farming practices
+
+        return baseCarbonFootprint * Math.max(1, eventCount / 2.0);
+    }
+
+    private List<TrackingRow> findRows(String batchCode) {
+        List<TrackingRow> rows = batchRepository.findTrackingRows(batchCode);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Batch not found with code: " + batchCode);
+        }
+        return rows;
+    }
+
+    private List<SupplyChainEventDTO> toEvents(List<TrackingRow> rows) {
+        List<SupplyChainEventDTO> events = new ArrayList<>(rows.size());
+        for (TrackingRow row : rows) {
+            if (row.getEventId() != null) {
+                events.add(toEvent(row));
+            }
+        }
+        return events;
+    }
+
+    // Public views are cached and shared by every request that reads them, so their collections cannot be modified
+
+    private static BatchDTO readOnly(BatchDTO batch) {
+        if (batch.getEvents() != null) {
+            batch.setEvents(List.copyOf(batch.getEvents()));
+        }
+        return batch;
+    }
+
+    private static ProductDTO readOnly(ProductDTO product) {
+        if (product.getEnvironmentalConditions() != null) {
+            product.setEnvironmentalConditions(List.copyOf(product.getEnvironmentalConditions()));
+        }
+        return product;
+    }
+
+    private static List<SupplyChainEventDTO> readOnlyEvents(List<SupplyChainEventDTO> events) {
+        for (SupplyChainEventDTO event : events) {
+            event.setAdditionalData(Collections.unmodifiableMap(event.getAdditionalData()));
+        }
+        return List.copyOf(events);
+    }
+
+    private BatchDTO toBatch(TrackingRow row) {
+        return new BatchDTO(
+                row.getBatchId(),
+                row.getBatchCode(),
+                row.getProductId(),
+                row.getProductName(),
+                row.getQuantity(),
+                row.getProductionDate(),
+                row.getBatchExpirationDate(),
+                row.getStatus().name(),
+                row.getBatchQrCodeUrl(),
+                row.getBatchCreatedAt(),
+                row.getBatchCreatedBy(),
+                row.getBatchNotes(),
+                null
+        );
+    }
+
+    private ProductDTO toProduct(TrackingRow row) {
+        return new ProductDTO(
+                row.getProductId(),
+                row.getProductBatchCode(),
+                row.getProductName(),
+                row.getDescription(),
+                row.getPrice(),
+                row.getStock(),
+                row.getProductCreatedBy(),
+                row.getProductCreatedAt(),
+                row.getHarvestDate(),
+                row.getProductExpirationDate(),
+                row.getProductType(),
+                row.getOrganic(),
+                row.getCertification(),
+                row.getCultivationMethod(),
+                row.getProductQrCodeUrl(),
+                row.getImageUrl(),
+                null
+        );
+    }
+
+    private SupplyChainEventDTO toEvent(TrackingRow row) {
+        return new SupplyChainEventDTO(
+                row.getEventId(),
+                row.getEventType().name(),
+                row.getBatchId(),
+                row.getBatchCode(),
+                row.getInitiatedBy(),
+                row.getReceivedBy(),
+                row.getTimestamp(),
+                row.getLocation(),
+                row.getGeoCoordinates(),
+                row.getTemperature(),
+                row.getHumidity(),
+                row.getEventNotes(),
+                row.getBlockchainTxHash(),
+                eventMapper.copyAdditionalData(row.getAdditionalData())
+        );
+    }
+}
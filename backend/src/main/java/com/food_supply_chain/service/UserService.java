@@ -9,13 +9,13 @@ import com.food_supply_chain.model.dto.LoginResponseDTO;
 import com.food_supply_chain.model.dto.RegistrationRequest;
 import com.food_supply_chain.model.dto.UserDTO;
 import com.food_supply_chain.repository.UserRepository;
+import com.food_supply_chain.security.UserPrincipal;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -23,7 +23,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,14 +34,17 @@ public class UserService implements UserDetailsService {
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final CurrentUserService currentUserService;
 
     @Autowired
     public UserService(UserRepository userRepository, JwtService jwtService,
-                       PasswordEncoder passwordEncoder, UserMapper userMapper) {
+                       PasswordEncoder passwordEncoder, UserMapper userMapper,
+                       CurrentUserService currentUserService) {
         this.userRepository = userRepository;
         this.jwtService = jwtService;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
+        this.currentUserService = currentUserService;
     }
 
     @Transactional
@@ -91,7 +96,7 @@ public class UserService implements UserDetailsService {
             throw new BadCredentialsException("Account is disabled");
         }
 
-        String token = jwtService.generateToken(user.getUsername());
+        String token = jwtService.generateToken(user);
 
         return new LoginResponseDTO(
                 token,
@@ -108,11 +113,7 @@ public class UserService implements UserDetailsService {
 
     @Transactional
     public UserDTO getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        return userMapper.toDTO(user);
+        return userMapper.toDTO(currentUserService.getCurrentUser());
     }
 
     @Transactional
@@ -137,12 +138,10 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         // Check if the current user is authorized to update this user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("Current user not found"));
+        UserPrincipal currentUser = currentUserService.getPrincipal();
 
         // Only allow users to update their own profile or admins to update any profile
-        if (!currentUser.getRole().equals(User.Role.ADMIN) && !user.getUsername().equals(currentUsername)) {
+        if (!currentUser.hasRole(User.Role.ADMIN) && !user.getUsername().equals(currentUser.username())) {
             throw new org.springframework.security.access.AccessDeniedException("You can only update your own profile");
         }
 
@@ -158,6 +157,10 @@ public class UserService implements UserDetailsService {
             throw new DuplicateResourceException("Email already exists");
         }
 
+        String oldUsername = user.getUsername();
+        User.Role oldRole = user.getRole();
+        Set<String> oldPermissions = new HashSet<>(user.getPermissions());
+
         // Update user fields
         userMapper.updateEntityFromDTO(userDTO, user);
 
@@ -169,27 +172,32 @@ public class UserService implements UserDetailsService {
         // Save updated user
         User updatedUser = userRepository.save(user);
 
+        // Issued tokens embed username, role and permissions, so a change to any of them forces a new login
+        if (!oldUsername.equals(updatedUser.getUsername()) || oldRole != updatedUser.getRole()
+                || !oldPermissions.equals(updatedUser.getPermissions())) {
+            userRepository.incrementTokenVersion(id);
+        }
+
+        // Drop the cached principal under both the old and the new username
+        currentUserService.evict(id, oldUsername);
+        currentUserService.evict(id, updatedUser.getUsername());
+
         return userMapper.toDTO(updatedUser);
     }
 
     @Transactional
     public void deleteUser(Long id) {
         // Check if user exists
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with id: " + id);
-        }
-
-        // Check if the current user is authorized to delete this user
-        String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("Current user not found"));
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         // Only allow admins to delete users
-        if (!currentUser.getRole().equals(User.Role.ADMIN)) {
+        if (!currentUserService.getPrincipal().hasRole(User.Role.ADMIN)) {
             throw new org.springframework.security.access.AccessDeniedException("Only admins can delete users");
         }
 
-        userRepository.deleteById(id);
+        userRepository.delete(user);
+        currentUserService.evict(id, user.getUsername());
     }
 
     @Transactional
@@ -223,6 +231,9 @@ public class UserService implements UserDetailsService {
 
         user.setEnabled(enabled);
         User updatedUser = userRepository.save(user);
+        // Revoke issued tokens; re-enabling does not bring them back
+        userRepository.incrementTokenVersion(id);
+        currentUserService.evict(id, updatedUser.getUsername());
 
         return userMapper.toDTO(updatedUser);
     }
@@ -234,6 +245,7 @@ public class UserService implements UserDetailsService {
 
         user.setVerified(true);
         User updatedUser = userRepository.save(user);
+        currentUserService.evict(id, updatedUser.getUsername());
 
         return userMapper.toDTO(updatedUser);
     }
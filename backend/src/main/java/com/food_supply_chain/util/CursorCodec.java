@@ -0,0 +1,90 @@
+package com.food_supply_chain.util;
+
+import com.food_supply_chain.model.dto.CursorPageDTO;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Encodes keyset pagination positions as opaque cursor strings.
+ * A cursor holds the sort value and id of the last item of a page; the next page starts right after it,
+ * so every page costs one index range scan no matter how deep it is.
+ */
+public final class CursorCodec {
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Creates the cursor pointing just past the given item
+     * @param sortValue Value of the item's sort property, e.g. its timestamp
+     * @param id ID of the item, which breaks ties between equal sort values
+     * @return URL-safe cursor string
+     */
+    public static String encode(Object sortValue, Long id) {
+        String raw = sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Turns a cursor back into a keyset position
+     * @param cursor Cursor from a previous page, or null/blank for the first page
+     * @param sortProperty Entity property the cursor's sort value belongs to
+     * @param sortValueParser Parses the sort value, e.g. LocalDateTime::parse
+     * @return Keyset position for the repository query
+     */
+    public static KeysetScrollPosition decode(String cursor, String sortProperty, Function<String, ?> sortValueParser) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sortProperty, sortValueParser.apply(raw.substring(0, separator)));
+            keys.put("id", Long.valueOf(raw.substring(separator + 1)));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Maps a window of entities to a page DTO carrying the cursor of its last item
+     * @param window Window returned by a keyset-scrolling repository query
+     * @param mapper Entity to DTO mapper
+     * @param cursorOf Builds the cursor of an entity, normally via {@link #encode(Object, Long)}
+     */
+    public static <E, D> CursorPageDTO<D> toPage(Window<E> window, Function<E, D> mapper, Function<E, String> cursorOf) {
+        List<D> items = window.stream().map(mapper).toList();
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? cursorOf.apply(window.getContent().get(window.size() - 1))
+                : null;
+        return new CursorPageDTO<>(items, nextCursor, nextCursor != null);
+    }
+
+    /**
+     * Validates a requested page size
+     * @param size Requested number of items
+     * @return Limit capped at {@link #MAX_PAGE_SIZE}
+     */
+    public static Limit limit(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Limit.of(Math.min(size, MAX_PAGE_SIZE));
+    }
+}
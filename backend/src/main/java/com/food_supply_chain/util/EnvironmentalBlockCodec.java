@@ -0,0 +1,361 @@
+package com.food_supply_chain.util;
+
+import com.food_supply_chain.model.EnvironmentalReading;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Columnar binary format of the archived readings of one product and day (see migration V12).
+ * Timestamps are stored as delta-of-delta microseconds, so readings at a steady interval cost one bit each.
+ * Numeric columns are XOR-compressed against the previous value of the same column, so a repeated value costs
+ * one bit and a small change only the bits that differ. Text columns are dictionary encoded, since a day's
+ * readings normally come from the same few devices and locations.
+ */
+public final class EnvironmentalBlockCodec {
+    private static final int VERSION = 1;
+
+    private static final List<Function<EnvironmentalReading, Double>> NUMBER_COLUMNS = List.of(
+            EnvironmentalReading::temperature,
+            EnvironmentalReading::humidity,
+            EnvironmentalReading::lightExposure,
+            EnvironmentalReading::soilMoisture,
+            EnvironmentalReading::soilPh,
+            EnvironmentalReading::airQuality);
+
+    private static final List<Function<EnvironmentalReading, String>> TEXT_COLUMNS = List.of(
+            EnvironmentalReading::recordedBy,
+            EnvironmentalReading::location,
+            EnvironmentalReading::notes);
+
+    // Delta-of-delta ranges after the zero case, as (prefix bits, value bits); the last one is the fallback
+    private static final int[][] DOD_BUCKETS = {{0b10, 16}, {0b110, 24}, {0b1110, 32}, {0b1111, 64}};
+
+    private EnvironmentalBlockCodec() {
+    }
+
+    /**
+     * Encodes readings into one block
+     * @param readings Readings ordered by timestamp
+     * @return Encoded block
+     */
+    public static byte[] encode(List<EnvironmentalReading> readings) {
+        BitWriter out = new BitWriter();
+        out.writeBits(VERSION, 8);
+        out.writeBits(readings.size(), 32);
+
+        writeTimestamps(out, readings);
+        for (Function<EnvironmentalReading, Double> column : NUMBER_COLUMNS) {
+            writeNumbers(out, readings, column);
+        }
+        for (Function<EnvironmentalReading, String> column : TEXT_COLUMNS) {
+            writeTexts(out, readings, column);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a block written by {@link #encode(List)}
+     * @param block Encoded block
+     * @return Readings ordered by timestamp
+     */
+    public static List<EnvironmentalReading> decode(byte[] block) {
+        BitReader in = new BitReader(block);
+        int version = (int) in.readBits(8);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported environmental block version: " + version);
+        }
+        int count = (int) in.readBits(32);
+
+        LocalDateTime[] timestamps = readTimestamps(in, count);
+        Double[][] numbers = new Double[NUMBER_COLUMNS.size()][];
+        for (int column = 0; column < numbers.length; column++) {
+            numbers[column] = readNumbers(in, count);
+        }
+        String[][] texts = new String[TEXT_COLUMNS.size()][];
+        for (int column = 0; column < texts.length; column++) {
+            texts[column] = readTexts(in, count);
+        }
+
+        List<EnvironmentalReading> readings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            readings.add(new EnvironmentalReading(timestamps[i],
+                    numbers[0][i], numbers[1][i], numbers[2][i], numbers[3][i], numbers[4][i], numbers[5][i],
+                    texts[0][i], texts[1][i], texts[2][i]));
+        }
+        return readings;
+    }
+
+    private static void writeTimestamps(BitWriter out, List<EnvironmentalReading> readings) {
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < readings.size(); i++) {
+            long micros = toMicros(readings.get(i).timestamp());
+            if (i == 0) {
+                out.writeBits(micros, 64);
+            } else {
+                long delta = micros - previous;
+                writeDeltaOfDelta(out, delta - previousDelta);
+                previousDelta = delta;
+            }
+            previous = micros;
+        }
+    }
+
+    private static void writeDeltaOfDelta(BitWriter out, long dod) {
+        if (dod == 0) {
+            out.writeBit(false);
+            return;
+        }
+        for (int[] bucket : DOD_BUCKETS) {
+            int prefix = bucket[0];
+            int bits = bucket[1];
+            if (bits == 64 || fitsSigned(dod, bits)) {
+                out.writeBits(prefix, 32 - Integer.numberOfLeadingZeros(prefix));
+                out.writeBits(dod, bits);
+                return;
+            }
+        }
+    }
+
+    private static LocalDateTime[] readTimestamps(BitReader in, int count) {
+        LocalDateTime[] timestamps = new LocalDateTime[count];
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long micros;
+            if (i == 0) {
+                micros = in.readBits(64);
+            } else {
+                long delta = previousDelta + readDeltaOfDelta(in);
+                micros = previous + delta;
+                previousDelta = delta;
+            }
+            timestamps[i] = fromMicros(micros);
+            previous = micros;
+        }
+        return timestamps;
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        if (!in.readBit()) {
+            return 0;
+        }
+        // One more leading 1 bit per bucket, up to the fallback
+        int bucket = 0;
+        while (bucket < DOD_BUCKETS.length - 1 && in.readBit()) {
+            bucket++;
+        }
+        int bits = DOD_BUCKETS[bucket][1];
+        return signExtend(in.readBits(bits), bits);
+    }
+
+    // Per value: a presence bit, then the XOR with the column's previous value, with its meaningful bits
+    // written inside the previous leading/trailing zero window when they fit, or with a new window otherwise
+    private static void writeNumbers(BitWriter out, List<EnvironmentalReading> readings,
+                                     Function<EnvironmentalReading, Double> column) {
+        boolean first = true;
+        long previous = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (EnvironmentalReading reading : readings) {
+            Double value = column.apply(reading);
+            out.writeBit(value != null);
+            if (value == null) {
+                continue;
+            }
+
+            long bits = Double.doubleToRawLongBits(value);
+            if (first) {
+                out.writeBits(bits, 64);
+                first = false;
+            } else {
+                long xor = bits ^ previous;
+                if (xor == 0) {
+                    out.writeBit(false);
+                } else {
+                    out.writeBit(true);
+                    int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                    int trailing = Long.numberOfTrailingZeros(xor);
+                    if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                        out.writeBit(false);
+                        out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                    } else {
+                        int meaningful = 64 - leading - trailing;
+                        out.writeBit(true);
+                        out.writeBits(leading, 5);
+                        out.writeBits(meaningful - 1, 6);
+                        out.writeBits(xor >>> trailing, meaningful);
+                        previousLeading = leading;
+                        previousTrailing = trailing;
+                    }
+                }
+            }
+            previous = bits;
+        }
+    }
+
+    private static Double[] readNumbers(BitReader in, int count) {
+        Double[] values = new Double[count];
+        boolean first = true;
+        long previous = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 0; i < count; i++) {
+            if (!in.readBit()) {
+                continue;
+            }
+
+            long bits;
+            if (first) {
+                bits = in.readBits(64);
+                first = false;
+            } else if (!in.readBit()) {
+                bits = previous;
+            } else {
+                if (in.readBit()) {
+                    previousLeading = (int) in.readBits(5);
+                    int meaningful = (int) in.readBits(6) + 1;
+                    previousTrailing = 64 - previousLeading - meaningful;
+                }
+                long xor = in.readBits(64 - previousLeading - previousTrailing) << previousTrailing;
+                bits = previous ^ xor;
+            }
+            values[i] = Double.longBitsToDouble(bits);
+            previous = bits;
+        }
+        return values;
+    }
+
+    // Dictionary of distinct values, then per value its dictionary position, with 0 meaning null
+    private static void writeTexts(BitWriter out, List<EnvironmentalReading> readings,
+                                   Function<EnvironmentalReading, String> column) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (EnvironmentalReading reading : readings) {
+            String value = column.apply(reading);
+            if (value != null) {
+                dictionary.putIfAbsent(value, dictionary.size() + 1);
+            }
+        }
+
+        out.writeBits(dictionary.size(), 32);
+        for (String value : dictionary.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeBits(bytes.length, 32);
+            for (byte b : bytes) {
+                out.writeBits(b, 8);
+            }
+        }
+
+        int width = indexWidth(dictionary.size());
+        for (EnvironmentalReading reading : readings) {
+            String value = column.apply(reading);
+            out.writeBits(value != null ? dictionary.get(value) : 0, width);
+        }
+    }
+
+    private static String[] readTexts(BitReader in, int count) {
+        int size = (int) in.readBits(32);
+        String[] dictionary = new String[size + 1];
+        for (int i = 1; i <= size; i++) {
+            byte[] bytes = new byte[(int) in.readBits(32)];
+            for (int b = 0; b < bytes.length; b++) {
+                bytes[b] = (byte) in.readBits(8);
+            }
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int width = indexWidth(size);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = dictionary[(int) in.readBits(width)];
+        }
+        return values;
+    }
+
+    private static int indexWidth(int dictionarySize) {
+        return 32 - Integer.numberOfLeadingZeros(dictionarySize);
+    }
+
+    private static boolean fitsSigned(long value, int bits) {
+        return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+    }
+
+    private static long signExtend(long value, int bits) {
+        return bits == 64 ? value : (value << (64 - bits)) >> (64 - bits);
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static final class BitWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int current;
+        private int filled;
+
+        void writeBit(boolean bit) {
+            current = (current << 1) | (bit ? 1 : 0);
+            if (++filled == 8) {
+                bytes.write(current);
+                current = 0;
+                filled = 0;
+            }
+        }
+
+        // Writes the lowest count bits of value, most significant first
+        void writeBits(long value, int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                writeBit(((value >>> i) & 1) != 0);
+            }
+        }
+
+        byte[] toByteArray() {
+            if (filled > 0) {
+                bytes.write(current << (8 - filled));
+                current = 0;
+                filled = 0;
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] data;
+        private long position;
+
+        BitReader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean readBit() {
+            if (position >= (long) data.length * 8) {
+                throw new IllegalArgumentException("Truncated environmental block");
+            }
+            int b = data[(int) (position >>> 3)];
+            boolean bit = ((b >>> (7 - (int) (position & 7))) & 1) != 0;
+            position++;
+            return bit;
+        }
+
+        long readBits(int count) {
+            long value = 0;
+            for (int i = 0; i < count; i++) {
+                value = (value << 1) | (readBit() ? 1 : 0);
+            }
+            return value;
+        }
+    }
+}
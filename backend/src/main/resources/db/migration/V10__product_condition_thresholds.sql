@@ -0,0 +1,12 @@
+-- Per-product limits for the streaming anomaly detector (ConditionAnomalyDetector).
+-- Columns left NULL fall back to the anomalies.defaults.* properties; products without a row use them all.
+CREATE TABLE IF NOT EXISTS product_condition_thresholds (
+    product_id                         BIGINT PRIMARY KEY REFERENCES products (id) ON DELETE CASCADE,
+    min_temperature                    FLOAT(53),
+    max_temperature                    FLOAT(53),
+    min_humidity                       FLOAT(53),
+    max_humidity                       FLOAT(53),
+    max_excursion_minutes              INTEGER,
+    max_temperature_change_per_minute  FLOAT(53),
+    max_degree_minutes                 FLOAT(53)
+);
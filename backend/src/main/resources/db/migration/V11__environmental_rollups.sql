@@ -0,0 +1,35 @@
+-- Minute, hour and day aggregates of each product's environmental readings, served by the environmental
+-- history endpoint instead of raw rows. Readings are added as they are written (SensorReadingBulkRepository
+-- and EnvironmentalRollupRepository.addReading share the merge statement); sums are kept instead of means so
+-- buckets can keep absorbing readings. Temperature and humidity are counted separately since either may be missing.
+CREATE TABLE IF NOT EXISTS environmental_rollups (
+    product_id        BIGINT       NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    resolution        VARCHAR(16)  NOT NULL,
+    bucket_start      TIMESTAMP(6) NOT NULL,
+    reading_count     BIGINT       NOT NULL,
+    temperature_count BIGINT       NOT NULL,
+    temperature_min   FLOAT(53),
+    temperature_max   FLOAT(53),
+    temperature_sum   FLOAT(53),
+    humidity_count    BIGINT       NOT NULL,
+    humidity_min      FLOAT(53),
+    humidity_max      FLOAT(53),
+    humidity_sum      FLOAT(53),
+    PRIMARY KEY (product_id, resolution, bucket_start)
+);
+
+-- Existing readings
+INSERT INTO environmental_rollups (product_id, resolution, bucket_start, reading_count,
+                                   temperature_count, temperature_min, temperature_max, temperature_sum,
+                                   humidity_count, humidity_min, humidity_max, humidity_sum)
+SELECT c.product_id, res.resolution, date_trunc(res.unit, c.timestamp), COUNT(*),
+       COUNT(c.temperature), MIN(c.temperature), MAX(c.temperature), SUM(c.temperature),
+       COUNT(c.humidity), MIN(c.humidity), MAX(c.humidity), SUM(c.humidity)
+FROM product_environmental_conditions c
+CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS res (resolution, unit)
+GROUP BY c.product_id, res.resolution, res.unit, date_trunc(res.unit, c.timestamp)
+ON CONFLICT (product_id, resolution, bucket_start) DO NOTHING;
+
+-- EnvironmentalRollupRepository.deleteOlderThan (retention of the fine resolutions)
+CREATE INDEX IF NOT EXISTS idx_environmental_rollups_resolution_bucket
+    ON environmental_rollups (resolution, bucket_start);
@@ -0,0 +1,13 @@
+-- Archive of environmental readings older than the retention window (EnvironmentalReadingArchiver).
+-- Each row holds all archived readings of one product and day in the columnar format of
+-- EnvironmentalBlockCodec, a few bytes per reading instead of a table row plus two index entries.
+-- The rows are deleted from product_environmental_conditions as they are archived, so the live table and its
+-- indexes, and the work vacuum does on them, only cover the retention window. Rollups (V11) are not affected.
+CREATE TABLE IF NOT EXISTS environmental_archive_blocks (
+    product_id    BIGINT       NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    day           DATE         NOT NULL,
+    reading_count INTEGER      NOT NULL,
+    archived_at   TIMESTAMP(6) NOT NULL,
+    data          BYTEA        NOT NULL,
+    PRIMARY KEY (product_id, day)
+);
@@ -0,0 +1,24 @@
+-- Loggers allowed to upload readings (SensorIngestionService). A device uploads for the user it is registered to,
+-- and only for its product when it is registered to one.
+CREATE TABLE IF NOT EXISTS sensor_devices (
+    device_id  VARCHAR(255) PRIMARY KEY,
+    owner_id   BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    product_id BIGINT       REFERENCES products (id) ON DELETE CASCADE,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_sensor_devices_owner_id ON sensor_devices (owner_id);
+
+-- Accepted readings whose chunk could not be written after retries, kept for replay instead of being dropped.
+-- No foreign keys, so a reading of a product deleted in the meantime can still be parked here.
+CREATE TABLE IF NOT EXISTS sensor_reading_dead_letters (
+    id          BIGSERIAL PRIMARY KEY,
+    product_id  BIGINT       NOT NULL,
+    timestamp   TIMESTAMP(6) NOT NULL,
+    temperature FLOAT(53),
+    humidity    FLOAT(53),
+    recorded_by VARCHAR(255),
+    location    VARCHAR(500),
+    error       TEXT,
+    failed_at   TIMESTAMP(6) NOT NULL
+);
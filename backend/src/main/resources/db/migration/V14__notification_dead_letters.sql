@@ -0,0 +1,16 @@
+-- Notifications whose insert failed after retries (NotificationDispatcher). They are written after the
+-- change they report has committed, so they are parked here for replay instead of being dropped.
+-- No foreign keys, so a notification of a user deleted in the meantime can still be parked here.
+CREATE TABLE IF NOT EXISTS notification_dead_letters (
+    id                  BIGSERIAL PRIMARY KEY,
+    user_id             BIGINT        NOT NULL,
+    title               VARCHAR(255)  NOT NULL,
+    message             VARCHAR(1000) NOT NULL,
+    read                BOOLEAN       NOT NULL,
+    notification_type   VARCHAR(255),
+    related_entity_id   BIGINT,
+    related_entity_type VARCHAR(255),
+    created_at          TIMESTAMP(6)  NOT NULL,
+    error               TEXT,
+    failed_at           TIMESTAMP(6)  NOT NULL
+);
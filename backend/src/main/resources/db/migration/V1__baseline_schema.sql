@@ -0,0 +1,116 @@
+-- Baseline schema matching the JPA entities.
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate), so this
+-- script only runs against an empty database, before Hibernate's ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS users (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username             VARCHAR(255) NOT NULL UNIQUE,
+    email                VARCHAR(255) NOT NULL UNIQUE,
+    password             VARCHAR(255) NOT NULL,
+    first_name           VARCHAR(255),
+    last_name            VARCHAR(255),
+    phone_number         VARCHAR(255),
+    profile_image_url    VARCHAR(255),
+    role                 VARCHAR(255) NOT NULL,
+    company_name         VARCHAR(255),
+    company_address      VARCHAR(255),
+    location_coordinates VARCHAR(255),
+    enabled              BOOLEAN NOT NULL,
+    verified             BOOLEAN NOT NULL,
+    created_at           TIMESTAMP(6),
+    updated_at           TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS user_permissions (
+    user_id    BIGINT NOT NULL REFERENCES users (id),
+    permission VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    batch_code         VARCHAR(255) NOT NULL UNIQUE,
+    name               VARCHAR(255) NOT NULL,
+    description        VARCHAR(255) NOT NULL,
+    price              FLOAT(53) NOT NULL,
+    stock              INTEGER NOT NULL,
+    farmer_id          BIGINT NOT NULL REFERENCES users (id),
+    created_at         TIMESTAMP(6) NOT NULL,
+    harvest_date       DATE,
+    expiration_date    DATE,
+    product_type       VARCHAR(255),
+    organic            BOOLEAN,
+    certification      VARCHAR(255),
+    cultivation_method VARCHAR(255),
+    qr_code            VARCHAR(255),
+    image_url          VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS product_environmental_conditions (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id     BIGINT NOT NULL REFERENCES products (id),
+    timestamp      TIMESTAMP(6) NOT NULL,
+    temperature    FLOAT(53),
+    humidity       FLOAT(53),
+    light_exposure FLOAT(53),
+    soil_moisture  FLOAT(53),
+    soil_ph        FLOAT(53),
+    air_quality    FLOAT(53),
+    recorded_by    VARCHAR(255),
+    location       VARCHAR(500),
+    notes          VARCHAR(1000)
+);
+
+CREATE TABLE IF NOT EXISTS batches (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    batch_code      VARCHAR(255) NOT NULL UNIQUE,
+    product_id      BIGINT NOT NULL REFERENCES products (id),
+    quantity        INTEGER NOT NULL,
+    production_date DATE NOT NULL,
+    expiration_date DATE,
+    status          VARCHAR(255) NOT NULL,
+    qr_code_url     VARCHAR(255),
+    created_at      TIMESTAMP(6) NOT NULL,
+    created_by_id   BIGINT NOT NULL REFERENCES users (id),
+    notes           VARCHAR(1000)
+);
+
+CREATE TABLE IF NOT EXISTS batch_events (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    batch_id           BIGINT NOT NULL REFERENCES batches (id),
+    recorded_by_id     BIGINT NOT NULL REFERENCES users (id),
+    timestamp          TIMESTAMP(6) NOT NULL,
+    event_type         VARCHAR(255) NOT NULL,
+    location           VARCHAR(500),
+    temperature        FLOAT(53),
+    humidity           FLOAT(53),
+    notes              VARCHAR(1000),
+    blockchain_tx_hash VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS supply_chain_events (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type         VARCHAR(255) NOT NULL,
+    batch_id           BIGINT REFERENCES batches (id),
+    initiated_by_id    BIGINT NOT NULL REFERENCES users (id),
+    received_by_id     BIGINT REFERENCES users (id),
+    timestamp          TIMESTAMP(6) NOT NULL,
+    location           VARCHAR(500),
+    geo_coordinates    VARCHAR(100),
+    temperature        FLOAT(53),
+    humidity           FLOAT(53),
+    notes              VARCHAR(1000),
+    blockchain_tx_hash VARCHAR(255),
+    additional_data    TEXT
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id             BIGINT NOT NULL REFERENCES users (id),
+    title               VARCHAR(255) NOT NULL,
+    message             VARCHAR(1000) NOT NULL,
+    read                BOOLEAN NOT NULL,
+    notification_type   VARCHAR(255),
+    related_entity_id   BIGINT,
+    related_entity_type VARCHAR(255),
+    created_at          TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,13 @@
+-- Denormalized per-user unread notification counters, kept up to date by NotificationCounterService.
+
+CREATE TABLE IF NOT EXISTS notification_counters (
+    user_id      BIGINT PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    unread_count BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO notification_counters (user_id, unread_count)
+SELECT user_id, COUNT(*)
+FROM notifications
+WHERE read = false
+GROUP BY user_id
+ON CONFLICT (user_id) DO NOTHING;
@@ -0,0 +1,4 @@
+-- Per-batch version of everything the public journey and tracking views show, used as their ETag.
+-- Bumped by PublicTrackingCache whenever a batch, its events or its product change.
+
+ALTER TABLE batches ADD COLUMN IF NOT EXISTS tracking_version BIGINT NOT NULL DEFAULT 0;
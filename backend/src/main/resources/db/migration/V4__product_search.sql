@@ -0,0 +1,11 @@
+-- Full-text search over product names and descriptions, replacing LIKE '%keyword%' scans.
+-- The 'simple' configuration keeps words unstemmed so that prefix queries (e.g. 'tom:*') match as typed.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_products_farmer_id ON products (farmer_id);
@@ -0,0 +1,5 @@
+-- Version of the identity claims (username, role, permissions) embedded in a user's JWTs.
+-- Bumped by UserService when any of them change or the account is disabled; tokens carrying an older
+-- version are rejected, forcing a fresh login.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- Denormalized number of batches per creator and status, kept up to date by BatchStatisticsService
+-- in the same transaction as every batch creation and status change.
+
+CREATE TABLE IF NOT EXISTS batch_status_counters (
+    user_id     BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    status      VARCHAR(255) NOT NULL,
+    batch_count BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, status)
+);
+
+INSERT INTO batch_status_counters (user_id, status, batch_count)
+SELECT created_by_id, status, COUNT(*)
+FROM batches
+GROUP BY created_by_id, status
+ON CONFLICT (user_id, status) DO NOTHING;
@@ -0,0 +1,150 @@
+-- Monthly range partitioning of supply_chain_events and batch_events on timestamp.
+-- Queries with a timestamp predicate only scan the matching months, and old months can be detached
+-- (and then archived or dropped) without touching the live partitions.
+-- Partitions are named <table>_YYYY_MM; EventPartitionMaintenance keeps future months created and,
+-- when a retention period is configured, detaches expired ones.
+
+-- Creates the partition holding the month that starts at month_start, unless it already exists
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent TEXT, month_start DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    partition_name TEXT := parent || '_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, parent, month_start, (month_start + INTERVAL '1 month')::DATE);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Creates any missing partitions from the current month through months_ahead months ahead
+-- and returns how many were created; safe to call concurrently from several nodes
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(parent TEXT, months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE;
+    created     INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('monthly_partitions:' || parent));
+    FOR month_start IN
+        SELECT generate_series(date_trunc('month', now()),
+                               date_trunc('month', now()) + make_interval(months => months_ahead),
+                               INTERVAL '1 month')::DATE
+    LOOP
+        IF create_monthly_partition(parent, month_start) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches every partition whose month ends on or before older_than and returns their names.
+-- Detached partitions stay behind as ordinary tables so they can be dumped and dropped.
+CREATE OR REPLACE FUNCTION detach_monthly_partitions(parent TEXT, older_than DATE) RETURNS SETOF TEXT AS $$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('monthly_partitions:' || parent));
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent::regclass
+          AND c.relname ~ ('^' || parent || '_\d{4}_\d{2}$')
+          AND to_date(right(c.relname, 7), 'YYYY_MM') + INTERVAL '1 month' <= older_than
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, partition_name);
+        RETURN NEXT partition_name;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- supply_chain_events
+-- The primary key has to include the partition key, and ids come from a plain sequence owned by the
+-- column (so pg_get_serial_sequence keeps working for SupplyChainEventBulkRepository).
+
+ALTER TABLE supply_chain_events RENAME TO supply_chain_events_unpartitioned;
+
+CREATE SEQUENCE supply_chain_events_partitioned_id_seq;
+
+CREATE TABLE supply_chain_events (
+    id                 BIGINT       NOT NULL DEFAULT nextval('supply_chain_events_partitioned_id_seq'),
+    event_type         VARCHAR(255) NOT NULL,
+    batch_id           BIGINT REFERENCES batches (id),
+    initiated_by_id    BIGINT       NOT NULL REFERENCES users (id),
+    received_by_id     BIGINT REFERENCES users (id),
+    timestamp          TIMESTAMP(6) NOT NULL,
+    location           VARCHAR(500),
+    geo_coordinates    VARCHAR(100),
+    temperature        FLOAT(53),
+    humidity           FLOAT(53),
+    notes              VARCHAR(1000),
+    blockchain_tx_hash VARCHAR(255),
+    additional_data    TEXT,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE supply_chain_events_partitioned_id_seq OWNED BY supply_chain_events.id;
+
+SELECT create_monthly_partition('supply_chain_events', month_start::DATE)
+FROM generate_series(
+        date_trunc('month', COALESCE((SELECT MIN(timestamp) FROM supply_chain_events_unpartitioned), now())),
+        date_trunc('month', GREATEST((SELECT MAX(timestamp) FROM supply_chain_events_unpartitioned), now()))
+            + INTERVAL '3 months',
+        INTERVAL '1 month') AS month_start;
+
+INSERT INTO supply_chain_events (id, event_type, batch_id, initiated_by_id, received_by_id, timestamp, location,
+                                 geo_coordinates, temperature, humidity, notes, blockchain_tx_hash, additional_data)
+SELECT id, event_type, batch_id, initiated_by_id, received_by_id, timestamp, location,
+       geo_coordinates, temperature, humidity, notes, blockchain_tx_hash, additional_data
+FROM supply_chain_events_unpartitioned;
+
+SELECT setval('supply_chain_events_partitioned_id_seq',
+              COALESCE((SELECT MAX(id) FROM supply_chain_events), 0) + 1, false);
+
+DROP TABLE supply_chain_events_unpartitioned;
+
+ALTER SEQUENCE supply_chain_events_partitioned_id_seq RENAME TO supply_chain_events_id_seq;
+
+-- batch_events
+
+ALTER TABLE batch_events RENAME TO batch_events_unpartitioned;
+
+CREATE SEQUENCE batch_events_partitioned_id_seq;
+
+CREATE TABLE batch_events (
+    id                 BIGINT       NOT NULL DEFAULT nextval('batch_events_partitioned_id_seq'),
+    batch_id           BIGINT       NOT NULL REFERENCES batches (id),
+    recorded_by_id     BIGINT       NOT NULL REFERENCES users (id),
+    timestamp          TIMESTAMP(6) NOT NULL,
+    event_type         VARCHAR(255) NOT NULL,
+    location           VARCHAR(500),
+    temperature        FLOAT(53),
+    humidity           FLOAT(53),
+    notes              VARCHAR(1000),
+    blockchain_tx_hash VARCHAR(255),
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE batch_events_partitioned_id_seq OWNED BY batch_events.id;
+
+SELECT create_monthly_partition('batch_events', month_start::DATE)
+FROM generate_series(
+        date_trunc('month', COALESCE((SELECT MIN(timestamp) FROM batch_events_unpartitioned), now())),
+        date_trunc('month', GREATEST((SELECT MAX(timestamp) FROM batch_events_unpartitioned), now()))
+            + INTERVAL '3 months',
+        INTERVAL '1 month') AS month_start;
+
+INSERT INTO batch_events (id, batch_id, recorded_by_id, timestamp, event_type, location, temperature, humidity,
+                          notes, blockchain_tx_hash)
+SELECT id, batch_id, recorded_by_id, timestamp, event_type, location, temperature, humidity,
+       notes, blockchain_tx_hash
+FROM batch_events_unpartitioned;
+
+SELECT setval('batch_events_partitioned_id_seq', COALESCE((SELECT MAX(id) FROM batch_events), 0) + 1, false);
+
+DROP TABLE batch_events_unpartitioned;
+
+ALTER SEQUENCE batch_events_partitioned_id_seq RENAME TO batch_events_id_seq;
@@ -0,0 +1,91 @@
+-- Indexes matching the predicates and sort orders of the repository finders.
+-- Hibernate's schema update only creates primary and unique keys, so without these every finder
+-- below was a sequential scan. Indexes on the partitioned event tables are created on each partition.
+-- FinderIndexTest checks with EXPLAIN that each finder's query can use its index.
+
+-- supply_chain_events
+-- findByBatch*, findByBatchOrderByTimestampDescIdDesc (keyset), findByBatchAndEventType, findByProductId,
+-- findTrackingRows
+CREATE INDEX IF NOT EXISTS idx_supply_chain_events_batch_timestamp
+    ON supply_chain_events (batch_id, timestamp DESC, id DESC);
+-- findByDateRange, findByTimestampBetweenOrderByTimestampDescIdDesc (keyset), streamByDateRange
+CREATE INDEX IF NOT EXISTS idx_supply_chain_events_timestamp
+    ON supply_chain_events (timestamp DESC, id DESC);
+-- findByInitiatedBy, findByUserInvolved (bitmap OR with the receiver index)
+CREATE INDEX IF NOT EXISTS idx_supply_chain_events_initiated_by
+    ON supply_chain_events (initiated_by_id);
+-- findByReceivedBy, findByUserInvolved; most events have no receiver
+CREATE INDEX IF NOT EXISTS idx_supply_chain_events_received_by
+    ON supply_chain_events (received_by_id) WHERE received_by_id IS NOT NULL;
+-- findByEventType
+CREATE INDEX IF NOT EXISTS idx_supply_chain_events_event_type
+    ON supply_chain_events (event_type, timestamp DESC);
+
+-- batch_events
+-- findByBatch, findByBatchOrderByTimestampDesc, findByBatchAndEventType
+CREATE INDEX IF NOT EXISTS idx_batch_events_batch_timestamp
+    ON batch_events (batch_id, timestamp DESC);
+-- findByDateRange
+CREATE INDEX IF NOT EXISTS idx_batch_events_timestamp
+    ON batch_events (timestamp);
+-- findByEventType
+CREATE INDEX IF NOT EXISTS idx_batch_events_event_type
+    ON batch_events (event_type);
+
+-- batches
+-- findByCreatedBy, findByCreatedByAndStatus
+CREATE INDEX IF NOT EXISTS idx_batches_created_by_status
+    ON batches (created_by_id, status);
+-- findByStatus, findByStatusOrderByCreatedAtDescIdDesc (keyset)
+CREATE INDEX IF NOT EXISTS idx_batches_status_created_at
+    ON batches (status, created_at DESC, id DESC);
+-- findExpiringBatches, findByExpirationDateLessThanEqualOrderByExpirationDateAscIdAsc (keyset)
+CREATE INDEX IF NOT EXISTS idx_batches_expiration_date
+    ON batches (expiration_date, id) WHERE expiration_date IS NOT NULL;
+-- findByProduct, findBatchCodesByProductId, SupplyChainEventRepository.findByProductId
+CREATE INDEX IF NOT EXISTS idx_batches_product_id
+    ON batches (product_id);
+
+-- notifications
+-- findByUserOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created_at
+    ON notifications (user_id, created_at DESC);
+-- countUnreadNotifications, and unread listings when read = false is known at planning time
+CREATE INDEX IF NOT EXISTS idx_notifications_user_unread
+    ON notifications (user_id, created_at DESC) WHERE read = false;
+-- findByRelatedEntity
+CREATE INDEX IF NOT EXISTS idx_notifications_related_entity
+    ON notifications (related_entity_type, related_entity_id);
+
+-- product_environmental_conditions
+-- findByProduct, findByProductOrderByTimestampDesc, findByProductAndDateRange, find*Anomalies
+CREATE INDEX IF NOT EXISTS idx_environmental_conditions_product_timestamp
+    ON product_environmental_conditions (product_id, timestamp DESC);
+-- findByDateRange
+CREATE INDEX IF NOT EXISTS idx_environmental_conditions_timestamp
+    ON product_environmental_conditions (timestamp);
+
+-- products (farmer_id and the search vector are indexed by V4)
+-- findByExpirationDateBetween
+CREATE INDEX IF NOT EXISTS idx_products_expiration_date
+    ON products (expiration_date) WHERE expiration_date IS NOT NULL;
+-- findByProductType
+CREATE INDEX IF NOT EXISTS idx_products_product_type
+    ON products (product_type);
+-- findByCertification
+CREATE INDEX IF NOT EXISTS idx_products_certification
+    ON products (certification);
+-- findOrganicProducts
+CREATE INDEX IF NOT EXISTS idx_products_organic
+    ON products (id) WHERE organic = true;
+
+-- users (username and email are unique)
+-- findByRole, findByRoleAndSearch
+CREATE INDEX IF NOT EXISTS idx_users_role
+    ON users (role);
+-- findUnverifiedUsers
+CREATE INDEX IF NOT EXISTS idx_users_unverified
+    ON users (id) WHERE verified = false;
+-- Eager permission collection loaded with every user
+CREATE INDEX IF NOT EXISTS idx_user_permissions_user_id
+    ON user_permissions (user_id);
@@ -0,0 +1,21 @@
+-- supply_chain_events.additional_data becomes jsonb, so it is parsed once when an event is loaded and
+-- events can be filtered by their custom (e.g. sensor) fields.
+-- Values that are not valid JSON were read as empty by the application and become NULL here.
+
+CREATE FUNCTION try_parse_jsonb(value TEXT) RETURNS jsonb AS $$
+BEGIN
+    RETURN value::jsonb;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+ALTER TABLE supply_chain_events
+    ALTER COLUMN additional_data TYPE jsonb USING try_parse_jsonb(additional_data);
+
+DROP FUNCTION try_parse_jsonb(TEXT);
+
+-- findByAdditionalDataContaining; jsonb_path_ops only supports containment (@>) but is smaller and faster
+-- than the default operator class
+CREATE INDEX IF NOT EXISTS idx_supply_chain_events_additional_data
+    ON supply_chain_events USING GIN (additional_data jsonb_path_ops);
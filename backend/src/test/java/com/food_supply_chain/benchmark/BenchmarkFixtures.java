@@ -0,0 +1,166 @@
+package com.food_supply_chain.benchmark;
+
+import com.food_supply_chain.model.Batch;
+import com.food_supply_chain.model.BatchEvent;
+import com.food_supply_chain.model.Product;
+import com.food_supply_chain.model.ProductEnvironmentalCondition;
+import com.food_supply_chain.model.SupplyChainEvent;
+import com.food_supply_chain.model.User;
+import com.food_supply_chain.model.dto.SupplyChainEventDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic entity graphs shaped like production data, built with a fixed seed so runs are comparable.
+ */
+final class BenchmarkFixtures {
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 3, 1, 6, 0);
+    private static final SupplyChainEvent.EventType[] JOURNEY = {
+            SupplyChainEvent.EventType.HARVESTED,
+            SupplyChainEvent.EventType.QUALITY_CHECKED,
+            SupplyChainEvent.EventType.PACKAGED,
+            SupplyChainEvent.EventType.STORED,
+            SupplyChainEvent.EventType.SHIPPED,
+            SupplyChainEvent.EventType.IN_TRANSIT,
+            SupplyChainEvent.EventType.RECEIVED,
+            SupplyChainEvent.EventType.QUALITY_CHECKED,
+            SupplyChainEvent.EventType.DELIVERED_TO_RETAILER,
+            SupplyChainEvent.EventType.STOCKED
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user(long id, String username, User.Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setFirstName("First" + id);
+        user.setLastName("Last" + id);
+        user.setRole(role);
+        user.setCompanyName("Company " + id);
+        user.setDefaultPermissions();
+        return user;
+    }
+
+    static Product product(User farmer, int environmentalConditions) {
+        Random random = new Random(42);
+
+        Product product = new Product();
+        product.setId(1001L);
+        product.setBatchCode("TOM-20240301060000");
+        product.setName("Organic Heirloom Tomatoes");
+        product.setDescription("Vine-ripened heirloom tomatoes grown in open fields without synthetic pesticides.");
+        product.setPrice(4.99);
+        product.setStock(1200);
+        product.setCreatedBy(farmer);
+        product.setCreatedAt(BASE_TIME);
+        product.setHarvestDate(BASE_TIME.toLocalDate());
+        product.setExpirationDate(BASE_TIME.toLocalDate().plusDays(21));
+        product.setProductType("VEGETABLE");
+        product.setOrganic(true);
+        product.setCertification("USDA Organic");
+        product.setCultivationMethod("CONVENTIONAL");
+        product.setQrCodeUrl("data:image/png;base64,iVBORw0KGgo");
+        product.setImageUrl("https://cdn.example.com/products/1001.jpg");
+
+        for (int i = 0; i < environmentalConditions; i++) {
+            ProductEnvironmentalCondition condition = new ProductEnvironmentalCondition();
+            condition.setId((long) i + 1);
+            condition.setProduct(product);
+            condition.setTimestamp(BASE_TIME.minusMinutes(15L * i));
+            condition.setTemperature(18 + random.nextGaussian() * 3);
+            condition.setHumidity(60 + random.nextGaussian() * 8);
+            condition.setLightExposure(20000 + random.nextGaussian() * 5000);
+            condition.setSoilMoisture(35 + random.nextGaussian() * 5);
+            condition.setSoilPh(6.5 + random.nextGaussian() * 0.3);
+            condition.setAirQuality(40 + random.nextGaussian() * 10);
+            condition.setRecordedBy("sensor-" + (i % 8));
+            condition.setLocation("Field " + (i % 4));
+            product.getEnvironmentalConditions().add(condition);
+        }
+        return product;
+    }
+
+    static Batch batch(Product product, User createdBy, int events) {
+        Batch batch = new Batch();
+        batch.setId(2001L);
+        batch.setBatchCode("BATCH-TOM-0001");
+        batch.setProduct(product);
+        batch.setQuantity(480);
+        batch.setProductionDate(LocalDate.of(2024, 3, 1));
+        batch.setExpirationDate(LocalDate.of(2024, 3, 22));
+        batch.setStatus(Batch.BatchStatus.IN_TRANSIT);
+        batch.setCreatedAt(BASE_TIME);
+        batch.setCreatedBy(createdBy);
+        batch.setNotes("Pallets 1-12, cold chain at 12C");
+
+        BatchEvent.EventType[] types = BatchEvent.EventType.values();
+        for (int i = 0; i < events; i++) {
+            BatchEvent event = new BatchEvent();
+            event.setId((long) i + 1);
+            event.setBatch(batch);
+            event.setRecordedBy(createdBy);
+            event.setTimestamp(BASE_TIME.plusHours(6L * i));
+            event.setEventType(types[i % types.length]);
+            event.setLocation("Warehouse " + (i % 5));
+            event.setTemperature(12.0 + (i % 3));
+            event.setHumidity(85.0);
+            event.setNotes("Scan " + i);
+            batch.getEvents().add(event);
+        }
+        return batch;
+    }
+
+    static SupplyChainEvent event(Batch batch, User initiatedBy, User receivedBy, int additionalFields) {
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setId(3001L);
+        event.setEventType(SupplyChainEvent.EventType.SHIPPED);
+        event.setBatch(batch);
+        event.setInitiatedBy(initiatedBy);
+        event.setReceivedBy(receivedBy);
+        event.setTimestamp(BASE_TIME.plusDays(2));
+        event.setLocation("Central Distribution Hub, Dock 4");
+        event.setGeoCoordinates("6.9271,79.8612");
+        event.setTemperature(12.5);
+        event.setHumidity(87.0);
+        event.setNotes("Loaded onto reefer truck");
+        event.setBlockchainTxHash("0x9f2c4b7e1d3a5f6081b2c3d4e5f60718293a4b5c6d7e8f90a1b2c3d4e5f60718");
+        event.setAdditionalData(additionalData(additionalFields));
+        return event;
+    }
+
+    static Map<String, String> additionalData(int fields) {
+        Map<String, String> data = new HashMap<>();
+        for (int i = 0; i < fields; i++) {
+            data.put("field" + i, "value-" + i + "-" + Integer.toHexString(i * 7919));
+        }
+        return data;
+    }
+
+    /**
+     * A batch journey of the given length, newest first, as the tracking endpoints return it
+     */
+    static List<SupplyChainEventDTO> journey(int events) {
+        List<SupplyChainEventDTO> journey = new ArrayList<>(events);
+        for (int i = events - 1; i >= 0; i--) {
+            SupplyChainEventDTO event = new SupplyChainEventDTO();
+            event.setId((long) i + 1);
+            event.setEventType(JOURNEY[i % JOURNEY.length].name());
+            event.setBatchId(2001L);
+            event.setBatchCode("BATCH-TOM-0001");
+            event.setInitiatedByUsername("distributor" + (i % 3));
+            event.setTimestamp(BASE_TIME.plusHours(4L * i));
+            event.setLocation("Stop " + i);
+            journey.add(event);
+        }
+        return journey;
+    }
+}
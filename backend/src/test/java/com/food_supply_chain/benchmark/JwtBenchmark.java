@@ -0,0 +1,70 @@
+package com.food_supply_chain.benchmark;
+
+import com.food_supply_chain.model.User;
+import com.food_supply_chain.security.UserPrincipal;
+import com.food_supply_chain.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token work done by JwtAuthenticationFilter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "benchmark_secret_key_that_is_long_enough_for_hs512_signatures");
+        ReflectionTestUtils.setField(jwtService, "expiration", 86_400_000L);
+        token = jwtService.generateToken(BenchmarkFixtures.user(2, "distributor1", User.Role.DISTRIBUTOR));
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtService.getUsernameFromToken(token);
+    }
+
+    // What JwtAuthenticationFilter used to do for every authenticated request
+    @Benchmark
+    public String validateAndGetUsername() {
+        return jwtService.validateToken(token) ? jwtService.getUsernameFromToken(token) : null;
+    }
+
+    // After the first call the signature check is served from the cache
+    @Benchmark
+    public Optional<Claims> verify() {
+        return jwtService.verify(token);
+    }
+
+    // What the filter does now, apart from the cached token version check
+    @Benchmark
+    public Optional<UserPrincipal> verifyAndBuildPrincipal() {
+        return jwtService.verify(token).flatMap(jwtService::getPrincipal);
+    }
+}
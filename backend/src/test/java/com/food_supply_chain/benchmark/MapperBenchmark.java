@@ -0,0 +1,93 @@
+package com.food_supply_chain.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.food_supply_chain.mapper.BatchMapper;
+import com.food_supply_chain.mapper.ProductMapper;
+import com.food_supply_chain.mapper.SupplyChainEventMapper;
+import com.food_supply_chain.model.Batch;
+import com.food_supply_chain.model.Product;
+import com.food_supply_chain.model.SupplyChainEvent;
+import com.food_supply_chain.model.User;
+import com.food_supply_chain.model.dto.BatchDTO;
+import com.food_supply_chain.model.dto.ProductDTO;
+import com.food_supply_chain.model.dto.SupplyChainEventDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping on the read hot paths, plus the additional-data JSON round trip of SupplyChainEvent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private static final TypeReference<Map<String, String>> ADDITIONAL_DATA_TYPE = new TypeReference<>() {};
+
+    // Number of environmental readings on the product and events on the batch
+    @Param({"10", "500"})
+    public int children;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private final BatchMapper batchMapper = new BatchMapper();
+    private final SupplyChainEventMapper eventMapper = new SupplyChainEventMapper();
+    // Shared reader and writer, as Hibernate's JSON format mapper uses them for the jsonb column
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectWriter additionalDataWriter = objectMapper.writerFor(ADDITIONAL_DATA_TYPE);
+    private final ObjectReader additionalDataReader = objectMapper.readerFor(ADDITIONAL_DATA_TYPE);
+
+    private Product product;
+    private Batch batch;
+    private SupplyChainEvent event;
+    private Map<String, String> additionalData;
+
+    @Setup
+    public void setUp() {
+        User farmer = BenchmarkFixtures.user(1, "farmer1", User.Role.FARMER);
+        User distributor = BenchmarkFixtures.user(2, "distributor1", User.Role.DISTRIBUTOR);
+        User retailer = BenchmarkFixtures.user(3, "retailer1", User.Role.RETAILER);
+
+        product = BenchmarkFixtures.product(farmer, children);
+        batch = BenchmarkFixtures.batch(product, farmer, children);
+        event = BenchmarkFixtures.event(batch, distributor, retailer, 12);
+        additionalData = BenchmarkFixtures.additionalData(12);
+    }
+
+    @Benchmark
+    public ProductDTO productToDto() {
+        return productMapper.toDTO(product);
+    }
+
+    @Benchmark
+    public BatchDTO batchToDto() {
+        return batchMapper.toDTO(batch);
+    }
+
+    @Benchmark
+    public SupplyChainEventDTO eventToDto() {
+        return eventMapper.toDTO(event);
+    }
+
+    @Benchmark
+    public Map<String, String> additionalDataRoundTrip() throws JsonProcessingException {
+        return additionalDataReader.readValue(additionalDataWriter.writeValueAsString(additionalData));
+    }
+}
@@ -0,0 +1,48 @@
+package com.food_supply_chain.benchmark;
+
+import com.food_supply_chain.model.dto.SupplyChainEventDTO;
+import com.food_supply_chain.service.TrackingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journey metrics computed for every public tracking response (formerly PublicTrackingController.calculateMetrics).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrackingMetricsBenchmark {
+    @Param({"10", "100", "1000"})
+    public int events;
+
+    private TrackingService trackingService;
+    private List<SupplyChainEventDTO> journey;
+
+    @Setup
+    public void setUp() {
+        // calculateMetrics does not touch the repositories or other services
+        trackingService = new TrackingService(null, null, null, null);
+        journey = BenchmarkFixtures.journey(events);
+    }
+
+    @Benchmark
+    public Map<String, Object> calculateMetrics() {
+        return trackingService.calculateMetrics(journey);
+    }
+}
@@ -0,0 +1,205 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.mapper.BatchMapper;
+import com.food_supply_chain.mapper.ProductMapper;
+import com.food_supply_chain.mapper.SupplyChainEventMapper;
+import com.food_supply_chain.model.Batch;
+import com.food_supply_chain.model.BatchEvent;
+import com.food_supply_chain.model.Product;
+import com.food_supply_chain.model.ProductEnvironmentalCondition;
+import com.food_supply_chain.model.SupplyChainEvent;
+import com.food_supply_chain.model.User;
+import com.food_supply_chain.model.dto.BatchDTO;
+import com.food_supply_chain.model.dto.DtoView;
+import com.food_supply_chain.service.BatchService;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads each list endpoint's entities through its repository finder, maps them with the endpoint's mapper
+ * and counts the SQL statements issued. Every row has its own owner, product and batch, so an N+1 fetch
+ * pattern would issue at least one statement per row; with the entity graphs and batch fetching
+ * the count stays bounded regardless of the number of rows.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class FetchPlanQueryCountTest {
+    private static final int ROWS = 20;
+    // The finder itself plus one batch-fetch round per lazy association or collection the mapper walks
+    // (users' eager permission sets included)
+    private static final int MAX_STATEMENTS = 8;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private BatchEventRepository batchEventRepository;
+
+    @Autowired
+    private SupplyChainEventRepository eventRepository;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private final BatchMapper batchMapper = new BatchMapper();
+    private final SupplyChainEventMapper eventMapper = new SupplyChainEventMapper();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void createJourneys() {
+        for (int i = 0; i < ROWS; i++) {
+            User farmer = persist(user("farmer" + i, User.Role.FARMER));
+            User distributor = persist(user("distributor" + i, User.Role.DISTRIBUTOR));
+            User retailer = persist(user("retailer" + i, User.Role.RETAILER));
+
+            Product product = new Product();
+            product.setBatchCode("P-" + i);
+            product.setName("Tomato " + i);
+            product.setDescription("Vine tomatoes");
+            product.setPrice(2.5);
+            product.setStock(100);
+            product.setProductType("VEGETABLE");
+            product.setOrganic(true);
+            product.setCreatedBy(farmer);
+            persist(product);
+
+            for (int j = 0; j < 2; j++) {
+                ProductEnvironmentalCondition condition = new ProductEnvironmentalCondition();
+                condition.setProduct(product);
+                condition.setTemperature(12.0 + j);
+                persist(condition);
+            }
+
+            Batch batch = new Batch();
+            batch.setBatchCode("B-" + i);
+            batch.setProduct(product);
+            batch.setQuantity(50);
+            batch.setProductionDate(LocalDate.now());
+            batch.setCreatedBy(farmer);
+            persist(batch);
+
+            BatchEvent batchEvent = new BatchEvent();
+            batchEvent.setBatch(batch);
+            batchEvent.setRecordedBy(distributor);
+            batchEvent.setEventType(BatchEvent.EventType.SHIPPED);
+            persist(batchEvent);
+
+            SupplyChainEvent event = new SupplyChainEvent();
+            event.setEventType(SupplyChainEvent.EventType.SHIPPED);
+            event.setBatch(batch);
+            event.setInitiatedBy(distributor);
+            event.setReceivedBy(retailer);
+            event.setAdditionalData(Map.of("sensorId", "T-17"));
+            persist(event);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void organicProducts() {
+        assertBounded(() -> productRepository.findOrganicProducts().stream().map(productMapper::toDTO).toList());
+    }
+
+    @Test
+    void productSearch() {
+        assertBounded(() -> productRepository.searchProducts("tomato:*", PageRequest.of(0, ROWS)).stream()
+                .map(productMapper::toDTO).toList());
+    }
+
+    @Test
+    void batchesByStatus() {
+        assertBounded(() -> batchRepository.findByStatus(Batch.BatchStatus.CREATED).stream()
+                .map(batchMapper::toDTO).toList());
+    }
+
+    @Test
+    void batchesByStatusSummaryViewLoadsNoEvents() {
+        List<Batch> batches = batchRepository.findByStatus(Batch.BatchStatus.CREATED);
+        assertBounded(() -> batches.stream().map(batch -> batchMapper.toDTO(batch, DtoView.SUMMARY)).toList());
+
+        assertThat(batches).noneMatch(batch -> Hibernate.isInitialized(batch.getEvents()));
+    }
+
+    @Test
+    void batchesByStatusDetailViewLoadsEventsInOneQuery() {
+        // Only the collaborators the status listing uses; the rest are never touched by it
+        BatchService batchService = new BatchService(batchRepository, batchEventRepository, productRepository,
+                null, batchMapper, null, null, null);
+        List<BatchDTO> dtos = assertBounded(() -> batchService.getBatchesByStatus("CREATED", DtoView.DETAIL));
+
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getEvents()).hasSize(1));
+    }
+
+    @Test
+    void batchEventsByDateRange() {
+        assertBounded(() -> batchEventRepository.findByDateRange(LocalDateTime.now().minusDays(1), LocalDateTime.now())
+                .stream().map(batchMapper::toEventDTO).toList());
+    }
+
+    @Test
+    void eventsByDateRange() {
+        assertBounded(() -> eventRepository.findByDateRange(LocalDateTime.now().minusDays(1), LocalDateTime.now())
+                .stream().map(eventMapper::toDTO).toList());
+    }
+
+    @Test
+    void eventsByAdditionalData() {
+        assertBounded(() -> eventRepository.findByAdditionalDataContaining("{\"sensorId\":\"T-17\"}",
+                        PageRequest.of(0, ROWS)).map(eventMapper::toDTO).getContent());
+    }
+
+    private <T> List<T> assertBounded(Supplier<List<T>> endpoint) {
+        List<T> dtos = endpoint.get();
+
+        assertThat(dtos).hasSize(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+        return dtos;
+    }
+
+    private User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("secret");
+        user.setRole(role);
+        user.setDefaultPermissions();
+        return user;
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -0,0 +1,471 @@
+package com.food_supply_chain.repository;
+
+import com.food_supply_chain.model.Batch;
+import com.food_supply_chain.model.BatchEvent;
+import com.food_supply_chain.model.EnvironmentalRollup;
+import com.food_supply_chain.model.Product;
+import com.food_supply_chain.model.SupplyChainEvent;
+import com.food_supply_chain.model.User;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Runs each repository finder against an embedded PostgreSQL migrated by Flyway, captures the SQL it sent
+ * and checks that the planner can answer that statement from the index added for it (migrations V4, V8, V9,
+ * V11, V12 and V13). The captured statement is prepared and explained with a generic plan, so the plan does not
+ * depend on the parameter values.
+ * Indexes on the partitioned event tables exist per partition under generated names, so those
+ * are matched by their column suffix.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({FinderIndexTest.StatementRecorder.class, EnvironmentalArchiveRepository.class})
+class FinderIndexTest {
+    private static final Pattern INDEX_SCAN = Pattern.compile("(Index Scan|Index Only Scan|Bitmap Index Scan)");
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 2, 1, 0, 0);
+    private static final AtomicInteger PREPARED_NAMES = new AtomicInteger();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @Autowired
+    private SupplyChainEventRepository eventRepository;
+
+    @Autowired
+    private BatchEventRepository batchEventRepository;
+
+    @Autowired
+    private BatchRepository batchRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ProductEnvironmentalConditionRepository conditionRepository;
+
+    @Autowired
+    private EnvironmentalRollupRepository rollupRepository;
+
+    @Autowired
+    private EnvironmentalArchiveRepository archiveRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SensorDeviceRepository sensorDeviceRepository;
+
+    @BeforeEach
+    void disableSequentialScans() {
+        // The tables are empty, so the planner would otherwise always pick a sequential scan;
+        // with sequential scans disabled it falls back to the cheapest usable index, if there is one
+        entityManager.createNativeQuery("SELECT set_config('enable_seqscan', 'off', true)").getSingleResult();
+        // Plan the captured statements for any parameter values rather than for the NULLs they are explained with
+        entityManager.createNativeQuery("SELECT set_config('plan_cache_mode', 'force_generic_plan', true)")
+                .getSingleResult();
+    }
+
+    @FunctionalInterface
+    interface Finder {
+        void run(FinderIndexTest test);
+    }
+
+    static Stream<Arguments> finders() {
+        // Left out: lookups by primary or unique key, whose indexes exist by definition, and finders that match
+        // with unanchored LIKE patterns (SupplyChainEventRepository.findByLocation, UserRepository.searchUsers),
+        // which no B-tree index can answer
+        return Stream.of(
+                // SupplyChainEventRepository
+                arguments("SupplyChainEventRepository.findByBatch",
+                        (Finder) test -> test.eventRepository.findByBatch(test.batch()),
+                        "supply_chain_events", "_batch_id_timestamp_id_idx"),
+                arguments("SupplyChainEventRepository.findByBatchOrderByTimestampDesc",
+                        (Finder) test -> test.eventRepository.findByBatchOrderByTimestampDesc(test.batch()),
+                        "supply_chain_events", "_batch_id_timestamp_id_idx"),
+                arguments("SupplyChainEventRepository.findByBatchOrderByTimestampDescIdDesc",
+                        (Finder) test -> test.eventRepository.findByBatchOrderByTimestampDescIdDesc(
+                                test.batch(), ScrollPosition.keyset(), Limit.of(50)),
+                        "supply_chain_events", "_batch_id_timestamp_id_idx"),
+                arguments("SupplyChainEventRepository.findByBatchAndEventType",
+                        (Finder) test -> test.eventRepository.findByBatchAndEventType(
+                                test.batch(), SupplyChainEvent.EventType.SHIPPED),
+                        "supply_chain_events", "_batch_id_timestamp_id_idx"),
+                arguments("SupplyChainEventRepository.findByTimestampBetweenOrderByTimestampDescIdDesc",
+                        (Finder) test -> test.eventRepository.findByTimestampBetweenOrderByTimestampDescIdDesc(
+                                FROM, TO, ScrollPosition.keyset(), Limit.of(50)),
+                        "supply_chain_events", "_\\d{4}_\\d{2}_timestamp_id_idx"),
+                arguments("SupplyChainEventRepository.findByDateRange",
+                        (Finder) test -> test.eventRepository.findByDateRange(FROM, TO),
+                        "supply_chain_events", "_\\d{4}_\\d{2}_timestamp_id_idx"),
+                arguments("SupplyChainEventRepository.streamByDateRange",
+                        (Finder) test -> {
+                            try (Stream<SupplyChainEventRow> rows = test.eventRepository.streamByDateRange(FROM, TO)) {
+                                rows.forEach(row -> { });
+                            }
+                        },
+                        "supply_chain_events", "_\\d{4}_\\d{2}_timestamp_id_idx"),
+                // The product's batches are found by product ID, then their events by batch
+                arguments("SupplyChainEventRepository.findByBatchProductIdOrderByTimestampDescIdDesc",
+                        (Finder) test -> test.eventRepository.findByBatchProductIdOrderByTimestampDescIdDesc(
+                                1L, ScrollPosition.keyset(), Limit.of(50)),
+                        "supply_chain_events", "idx_batches_product_id|_batch_id_timestamp_id_idx"),
+                arguments("SupplyChainEventRepository.findByProductId",
+                        (Finder) test -> test.eventRepository.findByProductId(1L),
+                        "supply_chain_events", "idx_batches_product_id|_batch_id_timestamp_id_idx"),
+                arguments("SupplyChainEventRepository.findByInitiatedBy",
+                        (Finder) test -> test.eventRepository.findByInitiatedBy(test.user()),
+                        "supply_chain_events", "_initiated_by_id_idx"),
+                arguments("SupplyChainEventRepository.findByReceivedBy",
+                        (Finder) test -> test.eventRepository.findByReceivedBy(test.user()),
+                        "supply_chain_events", "_received_by_id_idx"),
+                arguments("SupplyChainEventRepository.findByUserInvolved",
+                        (Finder) test -> test.eventRepository.findByUserInvolved(1L, PageRequest.of(0, 20)),
+                        "supply_chain_events", "_received_by_id_idx"),
+                arguments("SupplyChainEventRepository.findByEventType",
+                        (Finder) test -> test.eventRepository.findByEventType(SupplyChainEvent.EventType.SHIPPED),
+                        "supply_chain_events", "_event_type_timestamp_idx"),
+                arguments("SupplyChainEventRepository.findByAdditionalDataContaining",
+                        (Finder) test -> test.eventRepository.findByAdditionalDataContaining(
+                                "{\"sensorId\":\"T-17\"}", PageRequest.of(0, 20)),
+                        "supply_chain_events", "_additional_data_idx"),
+
+                // BatchEventRepository
+                arguments("BatchEventRepository.findByBatchOrderByTimestampDesc",
+                        (Finder) test -> test.batchEventRepository.findByBatchOrderByTimestampDesc(test.batch()),
+                        "batch_events", "_batch_id_timestamp_idx"),
+                arguments("BatchEventRepository.findByDateRange",
+                        (Finder) test -> test.batchEventRepository.findByDateRange(FROM, TO),
+                        "batch_events", "batch_events_\\d{4}_\\d{2}_timestamp_idx"),
+                arguments("BatchEventRepository.findByEventType",
+                        (Finder) test -> test.batchEventRepository.findByEventType(BatchEvent.EventType.CREATED),
+                        "batch_events", "_event_type_idx"),
+
+                // BatchRepository
+                arguments("BatchRepository.findByStatus",
+                        (Finder) test -> test.batchRepository.findByStatus(Batch.BatchStatus.CREATED),
+                        "batches", "idx_batches_status_created_at"),
+                arguments("BatchRepository.findByCreatedBy",
+                        (Finder) test -> test.batchRepository.findByCreatedBy(test.user()),
+                        "batches", "idx_batches_created_by_status"),
+                arguments("BatchRepository.findByCreatedByAndStatus",
+                        (Finder) test -> test.batchRepository.findByCreatedByAndStatus(
+                                test.user(), Batch.BatchStatus.CREATED),
+                        "batches", "idx_batches_created_by_status"),
+                arguments("BatchRepository.findByStatusOrderByCreatedAtDescIdDesc",
+                        (Finder) test -> test.batchRepository.findByStatusOrderByCreatedAtDescIdDesc(
+                                Batch.BatchStatus.CREATED, ScrollPosition.keyset(), Limit.of(50)),
+                        "batches", "idx_batches_status_created_at"),
+                arguments("BatchRepository.findExpiringBatches",
+                        (Finder) test -> test.batchRepository.findExpiringBatches(LocalDate.of(2030, 1, 1)),
+                        "batches", "idx_batches_expiration_date"),
+                arguments("BatchRepository.findByExpirationDateLessThanEqualOrderByExpirationDateAscIdAsc",
+                        (Finder) test -> test.batchRepository.findByExpirationDateLessThanEqualOrderByExpirationDateAscIdAsc(
+                                LocalDate.of(2030, 1, 1), ScrollPosition.keyset(), Limit.of(50)),
+                        "batches", "idx_batches_expiration_date"),
+                arguments("BatchRepository.findBatchCodesByProductId",
+                        (Finder) test -> test.batchRepository.findBatchCodesByProductId(1L),
+                        "batches", "idx_batches_product_id"),
+
+                // NotificationRepository
+                arguments("NotificationRepository.findByUserOrderByCreatedAtDesc",
+                        (Finder) test -> test.notificationRepository.findByUserOrderByCreatedAtDesc(
+                                test.user(), PageRequest.of(0, 20)),
+                        "notifications", "idx_notifications_user_created_at"),
+                arguments("NotificationRepository.findByUserAndReadOrderByCreatedAtDesc",
+                        (Finder) test -> test.notificationRepository.findByUserAndReadOrderByCreatedAtDesc(
+                                test.user(), false),
+                        "notifications", "idx_notifications_user_unread"),
+                arguments("NotificationRepository.countUnreadNotifications",
+                        (Finder) test -> test.notificationRepository.countUnreadNotifications(test.user()),
+                        "notifications", "idx_notifications_user_unread"),
+                arguments("NotificationRepository.findByRelatedEntity",
+                        (Finder) test -> test.notificationRepository.findByRelatedEntity("BATCH", 1L),
+                        "notifications", "idx_notifications_related_entity"),
+
+                // ProductEnvironmentalConditionRepository
+                arguments("ProductEnvironmentalConditionRepository.findByProductOrderByTimestampDesc",
+                        (Finder) test -> test.conditionRepository.findByProductOrderByTimestampDesc(test.product()),
+                        "product_environmental_conditions", "idx_environmental_conditions_product_timestamp"),
+                arguments("ProductEnvironmentalConditionRepository.findByProduct",
+                        (Finder) test -> test.conditionRepository.findByProduct(test.product()),
+                        "product_environmental_conditions", "idx_environmental_conditions_product_timestamp"),
+                arguments("ProductEnvironmentalConditionRepository.findTemperatureAnomalies",
+                        (Finder) test -> test.conditionRepository.findTemperatureAnomalies(test.product(), 0.0, 8.0),
+                        "product_environmental_conditions", "idx_environmental_conditions_product_timestamp"),
+                arguments("ProductEnvironmentalConditionRepository.findHumidityAnomalies",
+                        (Finder) test -> test.conditionRepository.findHumidityAnomalies(test.product(), 40.0, 95.0),
+                        "product_environmental_conditions", "idx_environmental_conditions_product_timestamp"),
+                arguments("ProductEnvironmentalConditionRepository.findByProductAndDateRange",
+                        (Finder) test -> test.conditionRepository.findByProductAndDateRange(test.product(), FROM, TO),
+                        "product_environmental_conditions", "idx_environmental_conditions_product_timestamp"),
+                arguments("ProductEnvironmentalConditionRepository.findByProductIdAndTimestampBetweenOrderByTimestamp",
+                        (Finder) test -> test.conditionRepository.findByProductIdAndTimestampBetweenOrderByTimestamp(
+                                1L, FROM, FROM.plusHours(1)),
+                        "product_environmental_conditions", "idx_environmental_conditions_product_timestamp"),
+                arguments("ProductEnvironmentalConditionRepository.findByDateRange",
+                        (Finder) test -> test.conditionRepository.findByDateRange(FROM, TO),
+                        "product_environmental_conditions", "idx_environmental_conditions_timestamp"),
+
+                // EnvironmentalRollupRepository
+                arguments("EnvironmentalRollupRepository.findByProductIdAndResolutionAndBucketStartBetweenOrderByBucketStart",
+                        (Finder) test -> test.rollupRepository
+                                .findByProductIdAndResolutionAndBucketStartBetweenOrderByBucketStart(
+                                        1L, EnvironmentalRollup.Resolution.HOUR, FROM, TO),
+                        "environmental_rollups", "environmental_rollups_pkey"),
+                arguments("EnvironmentalRollupRepository.deleteOlderThan",
+                        (Finder) test -> test.rollupRepository.deleteOlderThan(EnvironmentalRollup.Resolution.MINUTE, FROM),
+                        "environmental_rollups", "idx_environmental_rollups_resolution_bucket"),
+
+                // EnvironmentalArchiveRepository
+                arguments("EnvironmentalArchiveRepository.findOldestLiveDay",
+                        (Finder) test -> test.archiveRepository.findOldestLiveDay(FROM),
+                        "product_environmental_conditions", "idx_environmental_conditions_timestamp"),
+                arguments("EnvironmentalArchiveRepository.archiveDay",
+                        (Finder) test -> test.archiveRepository.archiveDay(
+                                new EnvironmentalArchiveRepository.ProductDay(1L, FROM.toLocalDate()), TO),
+                        "product_environmental_conditions", "idx_environmental_conditions_product_timestamp"),
+                arguments("EnvironmentalArchiveRepository.findReadings",
+                        (Finder) test -> test.archiveRepository.findReadings(1L, FROM, TO),
+                        "environmental_archive_blocks", "environmental_archive_blocks_pkey"),
+
+                // ProductRepository
+                arguments("ProductRepository.findByCreatedBy",
+                        (Finder) test -> test.productRepository.findByCreatedBy(test.user()),
+                        "products", "idx_products_farmer_id"),
+                arguments("ProductRepository.searchProducts",
+                        (Finder) test -> test.productRepository.searchProducts("tom:*", PageRequest.of(0, 20)),
+                        "products", "idx_products_search_vector"),
+                arguments("ProductRepository.findByCreatedByAndSearch",
+                        (Finder) test -> test.productRepository.findByCreatedByAndSearch(
+                                1L, "tom:*", PageRequest.of(0, 20)),
+                        "products", "idx_products_farmer_id|idx_products_search_vector"),
+                arguments("ProductRepository.findByExpirationDateBetween",
+                        (Finder) test -> test.productRepository.findByExpirationDateBetween(
+                                FROM.toLocalDate(), TO.toLocalDate()),
+                        "products", "idx_products_expiration_date"),
+                arguments("ProductRepository.findByProductType",
+                        (Finder) test -> test.productRepository.findByProductType("VEGETABLE"),
+                        "products", "idx_products_product_type"),
+                arguments("ProductRepository.findByCertification",
+                        (Finder) test -> test.productRepository.findByCertification("USDA"),
+                        "products", "idx_products_certification"),
+                arguments("ProductRepository.findOrganicProducts",
+                        (Finder) test -> test.productRepository.findOrganicProducts(),
+                        "products", "idx_products_organic"),
+
+                // SensorDeviceRepository
+                arguments("SensorDeviceRepository.findByOwnerIdOrderByCreatedAt",
+                        (Finder) test -> test.sensorDeviceRepository.findByOwnerIdOrderByCreatedAt(1L),
+                        "sensor_devices", "idx_sensor_devices_owner_id"),
+
+                // UserRepository
+                arguments("UserRepository.findByRole",
+                        (Finder) test -> test.userRepository.findByRole(User.Role.FARMER),
+                        "users", "idx_users_role"),
+                arguments("UserRepository.findByRoleAndSearch",
+                        (Finder) test -> test.userRepository.findByRoleAndSearch(
+                                User.Role.FARMER, "green", PageRequest.of(0, 20)),
+                        "users", "idx_users_role"),
+                arguments("UserRepository.findUnverifiedUsers",
+                        (Finder) test -> test.userRepository.findUnverifiedUsers(),
+                        "users", "idx_users_unverified"),
+                arguments("User.permissions",
+                        (Finder) test -> test.userRepository.findById(1L),
+                        "user_permissions", "idx_user_permissions_user_id")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderUsesIndex(String finder, Finder call, String table, String expectedIndex) {
+        String sql = capture(call, table);
+        String plan = explain(sql);
+
+        assertThat(plan).as("%s plan of%n%s%n%s", finder, sql, plan).containsPattern(INDEX_SCAN);
+        assertThat(plan).as("%s plan of%n%s%n%s", finder, sql, plan).containsPattern(expectedIndex);
+    }
+
+    /**
+     * Runs the finder and returns the first statement it sent that reads or writes the table
+     */
+    private String capture(Finder call, String table) {
+        Pattern tablePattern = Pattern.compile("\\b" + table + "\\b", Pattern.CASE_INSENSITIVE);
+
+        entityManager.flush();
+        entityManager.clear();
+        statementRecorder.clear();
+        call.run(this);
+
+        List<String> statements = statementRecorder.statements();
+        return statements.stream()
+                .filter(statement -> tablePattern.matcher(statement).find())
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statement on " + table + " among " + statements));
+    }
+
+    private String explain(String sql) {
+        String name = "finder_" + PREPARED_NAMES.incrementAndGet();
+        NumberedSql numbered = numberParameters(sql);
+
+        // Prepared statements outlive the test transaction, so the name is unique and deallocated explicitly
+        jdbcTemplate.execute("PREPARE " + name + " AS " + numbered.sql());
+        String execute = numbered.parameters() == 0
+                ? name
+                : name + "(" + String.join(", ", Collections.nCopies(numbered.parameters(), "NULL")) + ")";
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN EXECUTE " + execute, String.class);
+        jdbcTemplate.execute("DEALLOCATE " + name);
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Replaces JDBC ? placeholders outside of quoted literals and identifiers with PostgreSQL's $1, $2, ...
+     */
+    private static NumberedSql numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        char quote = 0;
+        for (char c : sql.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                numbered.append(c);
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                numbered.append(c);
+            } else if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return new NumberedSql(numbered.toString(), parameter);
+    }
+
+    private record NumberedSql(String sql, int parameters) {
+    }
+
+    private Batch batch() {
+        return entityManager.getReference(Batch.class, 1L);
+    }
+
+    private Product product() {
+        return entityManager.getReference(Product.class, 1L);
+    }
+
+    private User user() {
+        return entityManager.getReference(User.class, 1L);
+    }
+
+    /**
+     * Wraps the data source so that every statement sent to PostgreSQL, by Hibernate or through JdbcTemplate,
+     * is recorded with its placeholders
+     */
+    static class StatementRecorder implements BeanPostProcessor {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        List<String> statements() {
+            return new ArrayList<>(statements);
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return recording(Connection.class, super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return recording(Connection.class, super.getConnection(username, password));
+                }
+            };
+        }
+
+        /**
+         * Records the SQL passed to prepare*, execute* and addBatch, and wraps the statements the target creates
+         */
+        private <T> T recording(Class<T> type, T target) {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                String name = method.getName();
+                if (name.equals("equals")) {
+                    return p == args[0];
+                }
+                if (name.equals("hashCode")) {
+                    return System.identityHashCode(p);
+                }
+                if (args != null && args.length > 0 && args[0] instanceof String sql
+                        && (name.startsWith("prepare") || name.startsWith("execute") || name.equals("addBatch"))) {
+                    statements.add(sql);
+                }
+
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+
+                // Prepared statements are recorded when prepared; plain statements only when executed
+                if (name.equals("createStatement") && result instanceof Statement statement) {
+                    return recording(Statement.class, statement);
+                }
+                return result;
+            });
+            return type.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.food_supply_chain.service;
+
+import com.food_supply_chain.service.ConditionAnomalyDetector.Thresholds;
+import com.food_supply_chain.service.ConditionAnomalyDetector.Transition;
+import com.food_supply_chain.service.ConditionAnomalyDetector.WindowState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exercises the detector's rules on the per-product window state, one reading every 30 seconds
+ */
+class ConditionAnomalyDetectorTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 8, 0);
+    // 0..8 °C, at most 95 % humidity, 20 minute excursions, 1 °C per minute, 60 degree-minutes
+    private static final Thresholds COLD_CHAIN = new Thresholds(0.0, 8.0, null, 95.0, 20, 1.0, 60);
+
+    private WindowState state = WindowState.EMPTY;
+    private int step;
+
+    @Test
+    void reportsTemperatureExcursionOnceItLastsLongerThanAllowed() {
+        assertThat(readTemperatures(9.0, 40)).isEmpty(); // 19.5 minutes above 8 °C
+
+        List<String> issues = readTemperature(9.0); // 20 minutes
+        assertThat(issues).singleElement().asString().contains("outside 0.0..8.0°C for 20 minutes");
+
+        assertThat(readTemperatures(9.0, 10)).isEmpty();
+    }
+
+    @Test
+    void reportsExcursionAgainAfterReturningToRange() {
+        readTemperatures(9.0, 41);
+        readTemperature(5.0);
+
+        assertThat(readTemperatures(9.0, 40)).isEmpty();
+        assertThat(readTemperature(9.0)).anyMatch(issue -> issue.contains("for 20 minutes"));
+    }
+
+    @Test
+    void shortExcursionIsNotAnIssue() {
+        readTemperatures(9.0, 30);
+        readTemperature(5.0);
+
+        assertThat(readTemperatures(9.0, 30)).isEmpty();
+    }
+
+    @Test
+    void reportsFastTemperatureChange() {
+        readTemperature(4.0);
+
+        // 2 °C in half a minute is 4 °C per minute
+        assertThat(readTemperature(6.0)).singleElement().asString().startsWith("Temperature changed by +2.0°C");
+        // Not reported again while the previous report is recent
+        assertThat(readTemperature(4.0)).isEmpty();
+    }
+
+    @Test
+    void reportsCumulativeHeatExposure() {
+        readTemperature(8.0);
+
+        // 5 °C above the maximum accumulates 2.5 degree-minutes per reading, so 60 is passed on the 25th reading
+        assertThat(readTemperatures(13.0, 24).stream().filter(issue -> issue.contains("degree-minutes"))).isEmpty();
+        assertThat(readTemperature(13.0)).anyMatch(issue -> issue.contains("degree-minutes"));
+    }
+
+    @Test
+    void reportsHumidityExcursion() {
+        assertThat(readHumidities(97.0, 40)).isEmpty();
+        assertThat(readHumidity(97.0)).singleElement().asString().contains("Humidity 97%");
+    }
+
+    @Test
+    void ignoresLateReadings() {
+        readTemperature(4.0);
+        WindowState before = state;
+
+        Transition late = state.next(START.minusMinutes(5), 20.0, null, COLD_CHAIN);
+
+        assertThat(late.issues()).isEmpty();
+        assertThat(late.state()).isSameAs(before);
+    }
+
+    private List<String> readTemperatures(double temperature, int count) {
+        List<String> issues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            issues.addAll(readTemperature(temperature));
+        }
+        return issues;
+    }
+
+    private List<String> readHumidities(double humidity, int count) {
+        List<String> issues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            issues.addAll(readHumidity(humidity));
+        }
+        return issues;
+    }
+
+    private List<String> readTemperature(double temperature) {
+        return read(temperature, null);
+    }
+
+    private List<String> readHumidity(double humidity) {
+        return read(null, humidity);
+    }
+
+    private List<String> read(Double temperature, Double humidity) {
+        Transition transition = state.next(START.plusSeconds(30L * step++), temperature, humidity, COLD_CHAIN);
+        state = transition.state();
+        return transition.issues();
+    }
+}
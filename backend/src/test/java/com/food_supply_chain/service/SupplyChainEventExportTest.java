@@ -0,0 +1,73 @@
+package com.food_supply_chain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.food_supply_chain.model.dto.SupplyChainEventDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Newline-delimited JSON written by the event export, with the writer the service uses
+ */
+class SupplyChainEventExportTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 8, 0);
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final ObjectWriter writer = SupplyChainEventService.exportWriter(objectMapper);
+
+    @Test
+    void writesOneLinePerEvent() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        SupplyChainEventService.writeLines(writer, IntStream.rangeClosed(1, 3).mapToObj(this::event), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.length; i++) {
+            SupplyChainEventDTO event = objectMapper.readValue(lines[i], SupplyChainEventDTO.class);
+            assertThat(event).isEqualTo(event(i + 1));
+        }
+    }
+
+    @Test
+    void writesEventsLargerThanTheGeneratorBuffer() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        SupplyChainEventService.writeLines(writer, IntStream.rangeClosed(1, 2000).mapToObj(this::event), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2000);
+        assertThat(objectMapper.readValue(lines[1999], SupplyChainEventDTO.class)).isEqualTo(event(2000));
+    }
+
+    @Test
+    void writesNothingForNoEvents() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        SupplyChainEventService.writeLines(writer, Stream.empty(), out);
+
+        assertThat(out.size()).isZero();
+    }
+
+    private SupplyChainEventDTO event(int id) {
+        SupplyChainEventDTO event = new SupplyChainEventDTO();
+        event.setId((long) id);
+        event.setEventType("SHIPPED");
+        event.setBatchId(7L);
+        event.setBatchCode("B-7");
+        event.setInitiatedByUsername("distributor");
+        event.setTimestamp(START.plusMinutes(id));
+        event.setTemperature(4.5);
+        event.setAdditionalData(Map.of("sensorId", "T-17"));
+        return event;
+    }
+}
@@ -0,0 +1,73 @@
+package com.food_supply_chain.util;
+
+import com.food_supply_chain.model.EnvironmentalReading;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Round trips of archive blocks, and the size of a typical logger day
+ */
+class EnvironmentalBlockCodecTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Test
+    void roundTripsLoggerDay() {
+        // One reading every 30 seconds with a few milliseconds of jitter and slowly drifting values
+        List<EnvironmentalReading> readings = new ArrayList<>();
+        for (int i = 0; i < 2880; i++) {
+            LocalDateTime timestamp = DAY.plusSeconds(30L * i).plusNanos((i % 7) * 1_000_000L);
+            double temperature = Math.round((4.0 + Math.sin(i / 200.0)) * 10) / 10.0;
+            double humidity = Math.round((80.0 + (i % 50) / 10.0) * 10) / 10.0;
+            readings.add(reading(timestamp, temperature, humidity, "logger-7", "Cold store A"));
+        }
+
+        byte[] block = EnvironmentalBlockCodec.encode(readings);
+
+        assertThat(EnvironmentalBlockCodec.decode(block)).isEqualTo(readings);
+        // A table row of these readings takes well over 100 bytes before its index entries
+        assertThat(block.length).isLessThan(readings.size() * 10);
+    }
+
+    @Test
+    void roundTripsNullsIrregularTimesAndExtremeValues() {
+        List<EnvironmentalReading> readings = List.of(
+                reading(DAY.plusNanos(123_000), null, 55.5, null, null),
+                reading(DAY.plusNanos(123_000), -0.0, null, "device-1", "Dock 3"),
+                reading(DAY.plusHours(5), Double.NaN, 1e-300, "device-2", null),
+                reading(DAY.plusHours(5).plusSeconds(1), Double.MAX_VALUE, -1e300, "device-1", "Dock 3"),
+                new EnvironmentalReading(DAY.plusHours(23).plusMinutes(59), 3.25, 70.0,
+                        120.0, 35.5, 6.8, 42.0, "ünïcode-✓", "Field 9", "checked by hand"));
+
+        assertThat(EnvironmentalBlockCodec.decode(EnvironmentalBlockCodec.encode(readings))).isEqualTo(readings);
+    }
+
+    @Test
+    void roundTripsEmptyAndSingleReadingBlocks() {
+        assertThat(EnvironmentalBlockCodec.decode(EnvironmentalBlockCodec.encode(List.of()))).isEmpty();
+
+        List<EnvironmentalReading> single = List.of(reading(DAY, 4.0, 80.0, "logger-7", null));
+        assertThat(EnvironmentalBlockCodec.decode(EnvironmentalBlockCodec.encode(single))).isEqualTo(single);
+    }
+
+    @Test
+    void rejectsTruncatedBlock() {
+        byte[] block = EnvironmentalBlockCodec.encode(List.of(reading(DAY, 4.0, 80.0, "logger-7", null)));
+        byte[] truncated = Arrays.copyOf(block, block.length / 2);
+
+        assertThatThrownBy(() -> EnvironmentalBlockCodec.decode(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static EnvironmentalReading reading(LocalDateTime timestamp, Double temperature, Double humidity,
+                                                String recordedBy, String location) {
+        return new EnvironmentalReading(timestamp, temperature, humidity, null, null, null, null,
+                recordedBy, location, null);
+    }
+}
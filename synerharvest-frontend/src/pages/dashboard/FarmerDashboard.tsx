@@ -94,20 +94,20 @@ const FarmerDashboard: React.FC = () => {
         // Get products
         const products = await productService.getProductsByCurrentUser();
         
-        // Get batches
-        const batches = await batchService.getBatchesByCurrentUser();
+        // Get batch counts per status
+        const batchStats = await batchService.getBatchStats();
         
         // Get expiring batches
         const expiringBatches = await batchService.getExpiringBatches(7); // Batches expiring in 7 days
         
         // Calculate active batches (not sold, expired, or recalled)
-        const activeBatchesCount = batches.filter(batch => 
-          !['SOLD', 'EXPIRED', 'RECALLED'].includes(batch.status || '')
-        ).length;
+        const activeBatchesCount = Object.entries(batchStats.countsByStatus)
+          .filter(([status]) => !['SOLD', 'EXPIRED', 'RECALLED'].includes(status))
+          .reduce((sum, [, count]) => sum + count, 0);
         
         setStats({
           totalProducts: products.length,
-          totalBatches: batches.length,
+          totalBatches: batchStats.total,
           expiringBatches: expiringBatches.length,
           activeBatches: activeBatchesCount
         });
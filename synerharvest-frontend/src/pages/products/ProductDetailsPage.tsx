@@ -1,7 +1,7 @@
 // src/pages/products/ProductDetailsPage.tsx
 import React, { useState, useEffect } from 'react';
 import { Link, useParams, useNavigate } from 'react-router-dom';
-import productService, { Product } from '../../services/productService';
+import productService, { EnvironmentalHistory, Product } from '../../services/productService';
 import batchService, { Batch } from '../../services/batchService';
 
 const ProductDetailsPage: React.FC = () => {
@@ -13,6 +13,7 @@ const ProductDetailsPage: React.FC = () => {
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState('');
   const [environmentalConditionsVisible, setEnvironmentalConditionsVisible] = useState(false);
+  const [environmentalHistory, setEnvironmentalHistory] = useState<EnvironmentalHistory | null>(null);
 
   useEffect(() => {
     fetchProductData();
@@ -33,6 +34,10 @@ const ProductDetailsPage: React.FC = () => {
       const productData = await productService.getProduct(productId);
       setProduct(productData);
       
+      // Readings are not part of the product; the last week is fetched as aggregates
+      const historyData = await productService.getEnvironmentalHistory(productId);
+      setEnvironmentalHistory(historyData);
+
       // Fetch batches for this product
       const batchesData = await batchService.getBatchesByProduct(productId);
       setBatches(batchesData);
@@ -260,10 +265,10 @@ const ProductDetailsPage: React.FC = () => {
             </div>
           )}
 
-          {product.environmentalConditions && product.environmentalConditions.length > 0 && (
+          {environmentalHistory && environmentalHistory.points.length > 0 && (
             <div className="card environmental-conditions-card">
               <div className="card-header clickable" onClick={toggleEnvironmentalConditions}>
-                <h2 className="card-title">Environmental Conditions</h2>
+                <h2 className="card-title">Environmental Conditions (last 7 days)</h2>
                 <button className="toggle-btn">
                   <svg xmlns="http://www.w3.org/2000/svg" width="20" height="20" viewBox="0 0 24 24" fill="none" stroke="currentColor" strokeWidth="2" strokeLinecap="round" strokeLinejoin="round">
                     {environmentalConditionsVisible ? (
@@ -280,23 +285,25 @@ const ProductDetailsPage: React.FC = () => {
                     <table className="table">
                       <thead>
                         <tr>
-                          <th>Date</th>
+                          <th>{environmentalHistory.resolution === 'RAW' ? 'Date' : 'Period'}</th>
                           <th>Temp (°C)</th>
+                          <th>Temp range (°C)</th>
                           <th>Humidity (%)</th>
-                          <th>Soil pH</th>
-                          <th>Location</th>
-                          <th>Recorded By</th>
+                          <th>Readings</th>
                         </tr>
                       </thead>
                       <tbody>
-                        {product.environmentalConditions.map(condition => (
-                          <tr key={condition.id}>
-                            <td>{new Date(condition.timestamp || '').toLocaleString()}</td>
-                            <td>{condition.temperature?.toFixed(1) || 'N/A'}</td>
-                            <td>{condition.humidity?.toFixed(1) || 'N/A'}</td>
-                            <td>{condition.soilPh?.toFixed(1) || 'N/A'}</td>
-                            <td>{condition.location || 'N/A'}</td>
-                            <td>{condition.recordedBy || 'N/A'}</td>
+                        {[...environmentalHistory.points].reverse().map(point => (
+                          <tr key={point.bucketStart}>
+                            <td>{new Date(point.bucketStart).toLocaleString()}</td>
+                            <td>{point.temperatureMean?.toFixed(1) ?? 'N/A'}</td>
+                            <td>
+                              {point.temperatureMin != null && point.temperatureMax != null
+                                ? `${point.temperatureMin.toFixed(1)} – ${point.temperatureMax.toFixed(1)}`
+                                : 'N/A'}
+                            </td>
+                            <td>{point.humidityMean?.toFixed(1) ?? 'N/A'}</td>
+                            <td>{point.count}</td>
                           </tr>
                         ))}
                       </tbody>
@@ -181,13 +181,12 @@ const analyticsService = {
   // Get environmental data for a specific product
   getEnvironmentalData: async (productId: number): Promise<EnvironmentalData[]> => {
     try {
-      const response = await apiClient.get(`/products/${productId}/environmental-conditions`);
-      return response.data.map((condition) => ({
-        timestamp: condition.timestamp,
-        temperature: condition.temperature || 0,
-        humidity: condition.humidity || 0,
-        soilMoisture: condition.soilMoisture,
-        soilPh: condition.soilPh
+      // Aggregates at a resolution the server picks for the range; soil readings are not aggregated
+      const response = await apiClient.get(`/products/${productId}/environmental-history`);
+      return response.data.points.map((point) => ({
+        timestamp: point.bucketStart,
+        temperature: point.temperatureMean || 0,
+        humidity: point.humidityMean || 0
       }));
     } catch (error) {
       console.error(`Error fetching environmental data for product ${productId}:`, error);
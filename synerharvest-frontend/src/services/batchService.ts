@@ -14,6 +14,7 @@ export interface Batch {
   createdAt?: string;
   createdByUsername?: string;
   notes?: string;
+  // Only on single-batch responses; batch lists include it when requested with view=DETAIL
   events?: BatchEvent[];
 }
 
@@ -30,6 +31,11 @@ export interface BatchEvent {
   blockchainTxHash?: string;
 }
 
+export interface BatchStats {
+  countsByStatus: Record<string, number>;
+  total: number;
+}
+
 const batchService = {
   createBatch: async (batch: Batch) => {
     const response = await apiClient.post('/batches', batch);
@@ -56,6 +62,16 @@ const batchService = {
     return response.data;
   },
 
+  getBatchStats: async (): Promise<BatchStats> => {
+    const response = await apiClient.get('/batches/stats');
+    return response.data;
+  },
+
+  getGlobalBatchStats: async (): Promise<BatchStats> => {
+    const response = await apiClient.get('/batches/stats/global');
+    return response.data;
+  },
+
   getBatchesByStatus: async (status: string) => {
     const response = await apiClient.get(`/batches/status/${status}`);
     return response.data;
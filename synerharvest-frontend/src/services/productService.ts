@@ -17,6 +17,7 @@ export interface Product {
   cultivationMethod?: string;
   qrCodeUrl?: string;
   imageUrl?: string;
+  // Sent when creating or updating a product; responses never include readings
   environmentalConditions?: EnvironmentalCondition[];
 }
 
@@ -35,6 +36,27 @@ export interface EnvironmentalCondition {
   notes?: string;
 }
 
+export type EnvironmentalResolution = 'RAW' | 'MINUTE' | 'HOUR' | 'DAY';
+
+export interface EnvironmentalRollup {
+  bucketStart: string;
+  count: number;
+  temperatureMin?: number;
+  temperatureMax?: number;
+  temperatureMean?: number;
+  humidityMin?: number;
+  humidityMax?: number;
+  humidityMean?: number;
+}
+
+export interface EnvironmentalHistory {
+  productId: number;
+  resolution: EnvironmentalResolution;
+  from: string;
+  to: string;
+  points: EnvironmentalRollup[];
+}
+
 const productService = {
   createProduct: async (product: Product) => {
     const response = await apiClient.post('/products', product);
@@ -77,8 +99,22 @@ const productService = {
     return response.data;
   },
 
-  getEnvironmentalConditions: async (productId: number) => {
-    const response = await apiClient.get(`/products/${productId}/environmental-conditions`);
+  // Individual readings of at most a week; the server defaults to the last day
+  getEnvironmentalConditions: async (productId: number, from?: string, to?: string) => {
+    const params = { from, to };
+    const response = await apiClient.get(`/products/${productId}/environmental-conditions`, { params });
+    return response.data;
+  },
+
+  // Aggregated readings; the server picks the resolution from the range unless one is given
+  getEnvironmentalHistory: async (
+    productId: number,
+    from?: string,
+    to?: string,
+    resolution?: EnvironmentalResolution
+  ): Promise<EnvironmentalHistory> => {
+    const params = { from, to, resolution };
+    const response = await apiClient.get(`/products/${productId}/environmental-history`, { params });
     return response.data;
   },
 